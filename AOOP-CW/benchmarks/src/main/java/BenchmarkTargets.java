@@ -0,0 +1,129 @@
+// BenchmarkTargets.java
+import javax.swing.JComponent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/*
+ * Bridge between the game, which lives in the default package, and the JMH benchmarks,
+ * which JMH requires to be in a named package. Each method hands out a game operation
+ * behind a JDK functional interface; the benchmarks look this class up once by name.
+ * */
+public final class BenchmarkTargets {
+    private BenchmarkTargets() {
+    }
+
+    // Every equation of the shared corpus
+    public static List<String> corpus() {
+        EquationCorpus corpus = EquationCorpus.getInstance();
+        List<String> equations = new ArrayList<>(corpus.size());
+        for (int i = 0; i < corpus.size(); i++) {
+            equations.add(corpus.get(i));
+        }
+        return equations;
+    }
+
+    // Packed codes of the shared corpus entries of the game's length
+    public static int[] packedCorpus() {
+        return EquationCorpus.getInstance().packedRowsOfLength(INumberleModel.EQUATION_LENGTH);
+    }
+
+    // PackedEquation.encode
+    public static Function<CharSequence, Integer> pack() {
+        return PackedEquation::encode;
+    }
+
+    // FeedbackEngine.score on one pair of packed codes
+    public static IntBinaryOperator packedScore() {
+        return FeedbackEngine::score;
+    }
+
+    // FeedbackEngine.scoreAgainstAll of a packed guess against the targets, written into out
+    public static IntConsumer scoreAgainstAll(int[] targets, short[] out) {
+        return guess -> FeedbackEngine.scoreAgainstAll(guess, targets, out);
+    }
+
+    // EquationValidator.validate, returning the ValidationResult
+    public static Function<CharSequence, Object> validator() {
+        EquationValidator validator = new EquationValidator();
+        return validator::validate;
+    }
+
+    // GuessDictionary.contains for a dictionary generated in memory
+    public static Predicate<CharSequence> dictionary() {
+        return GuessDictionary.generate(INumberleModel.EQUATION_LENGTH)::contains;
+    }
+
+    // NumberleController.validateInput, only for valid input since it reports errors through the view
+    public static Predicate<String> controllerValidateInput() {
+        NumberleModel model = new NumberleModel();
+        model.initialize();
+        NumberleController controller = new NumberleController(model);
+        return controller::validateInput;
+    }
+
+    // EquationEvaluator.evaluate on one side of an equation
+    public static ToIntFunction<CharSequence> evaluator() {
+        EquationEvaluator evaluator = new EquationEvaluator();
+        return evaluator::evaluate;
+    }
+
+    // NumberleModel.matchInput(guess) with the given target
+    public static BiFunction<char[], String, int[]> matchInput() {
+        NumberleModel model = new NumberleModel();
+        return (guess, target) -> {
+            model.setTargetNumber(target);
+            return model.matchInput(guess);
+        };
+    }
+
+    // An empty GameBoard of the game's size, laid out at the given size
+    public static JComponent gameBoard(int width, int height) {
+        GameBoard board = new GameBoard(INumberleModel.MAX_ATTEMPTS, INumberleModel.EQUATION_LENGTH);
+        board.setSize(width, height);
+        return board;
+    }
+
+    // GameBoard.setRow(row, guess, statuses) on a board from gameBoard
+    public static IntConsumer setBoardRow(JComponent board, String guess, int[] statuses) {
+        return row -> ((GameBoard) board).setRow(row, guess, statuses);
+    }
+
+    // GameBoard.clear on a board from gameBoard
+    public static Runnable clearBoard(JComponent board) {
+        return ((GameBoard) board)::clear;
+    }
+
+    // NumberleModel.initialize
+    public static Runnable initialize() {
+        NumberleModel model = new NumberleModel();
+        return model::initialize;
+    }
+
+    // NumberleModel.startNewGame
+    public static Runnable startNewGame() {
+        NumberleModel model = new NumberleModel();
+        return model::startNewGame;
+    }
+
+    // A whole game against the target: validate and score each guess until the game ends, returns attempts left
+    public static BiFunction<String, String[], Integer> scriptedGame() {
+        NumberleModel model = new NumberleModel();
+        EquationValidator validator = new EquationValidator();
+        return (target, guesses) -> {
+            model.startNewGame();
+            model.setTargetNumber(target);
+            for (String guess : guesses) {
+                if (model.isGameOver()) break;
+                if (!validator.validate(guess).isValid()) continue;
+                if (!model.processInput(guess)) model.matchInput(guess.toCharArray());
+            }
+            return model.getRemainingAttempts();
+        };
+    }
+}
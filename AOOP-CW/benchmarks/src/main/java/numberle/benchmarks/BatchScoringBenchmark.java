@@ -0,0 +1,102 @@
+// BatchScoringBenchmark.java
+package numberle.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+
+/*
+ * One guess scored against TARGETS corpus entries, so ops/s is (guess, target) pairs per second:
+ * NumberleModel.matchInput per pair, FeedbackEngine.score per packed pair,
+ * and FeedbackEngine.scoreAgainstAll over the whole batch.
+ * */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchScoringBenchmark {
+    private static final int TARGETS = 4096;
+    private static final int GUESSES = 64; // power of two, indexed with a mask
+
+    private BiFunction<char[], String, int[]> matchInput;
+    private IntBinaryOperator packedScore;
+    private IntConsumer scoreAgainstAll;
+    private char[][] guessChars;
+    private int[] guesses;
+    private String[] targetStrings;
+    private int[] targets;
+    private short[] out;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<String> corpus = Game.target("corpus");
+        Function<CharSequence, Integer> pack = Game.target("pack");
+        // Only entries that pack, repeated if the corpus is smaller than a batch
+        List<String> pool = new ArrayList<>();
+        for (String equation : corpus) {
+            if (equation.length() == 7 && pack.apply(equation) != -1) pool.add(equation);
+        }
+        Random random = new Random(42);
+        targetStrings = new String[TARGETS];
+        targets = new int[TARGETS];
+        for (int i = 0; i < TARGETS; i++) {
+            targetStrings[i] = pool.get(i % pool.size());
+            targets[i] = pack.apply(targetStrings[i]);
+        }
+        guessChars = new char[GUESSES][];
+        guesses = new int[GUESSES];
+        for (int i = 0; i < GUESSES; i++) {
+            String guess = pool.get(random.nextInt(pool.size()));
+            guessChars[i] = guess.toCharArray();
+            guesses[i] = pack.apply(guess);
+        }
+        out = new short[TARGETS];
+        matchInput = Game.target("matchInput");
+        packedScore = Game.target("packedScore");
+        scoreAgainstAll = Game.target("scoreAgainstAll", targets, out);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TARGETS)
+    public void matchInputPerPair(Blackhole blackhole) {
+        char[] guess = guessChars[next++ & (GUESSES - 1)];
+        for (String target : targetStrings) {
+            blackhole.consume(matchInput.apply(guess, target));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TARGETS)
+    public short[] packedPerPair() {
+        int guess = guesses[next++ & (GUESSES - 1)];
+        for (int i = 0; i < TARGETS; i++) {
+            out[i] = (short) packedScore.applyAsInt(guess, targets[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TARGETS)
+    public short[] scoreAgainstAll() {
+        scoreAgainstAll.accept(guesses[next++ & (GUESSES - 1)]);
+        return out;
+    }
+}
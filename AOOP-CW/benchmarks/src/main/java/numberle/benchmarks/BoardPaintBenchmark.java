@@ -0,0 +1,156 @@
+// BoardPaintBenchmark.java
+package numberle.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.BorderFactory;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingConstants;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GridLayout;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/*
+ * Painting a scored row and resetting the grid into an offscreen image, the way Swing would
+ * repaint the dirty tiles: the old grid of 42 JLabels against GameBoard. Runs headless;
+ * add -prof gc for the bytes allocated per operation.
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class BoardPaintBenchmark {
+    private static final int ROWS = 6;    // INumberleModel.MAX_ATTEMPTS
+    private static final int COLUMNS = 7; // INumberleModel.EQUATION_LENGTH
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 230;
+    private static final String GUESS = "12+3=15";
+    private static final int[] STATUSES = {0, 1, 2, 0, 1, 2, 0};
+
+    @Param({"labels", "gameBoard"})
+    public String board;
+
+    private Board painter;
+    private BufferedImage image;
+    private Graphics2D g;
+    private int next;
+
+    private interface Board {
+        void scoreRow(int row, Graphics2D g);
+        void reset(Graphics2D g);
+    }
+
+    // The previous view: one opaque, bordered JLabel per tile
+    private static final class LabelBoard implements Board {
+        final JPanel panel = new JPanel(new GridLayout(ROWS, COLUMNS, 5, 5));
+        final JLabel[][] labels = new JLabel[ROWS][COLUMNS];
+
+        LabelBoard() {
+            panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+            panel.setBackground(Color.LIGHT_GRAY);
+            for (int i = 0; i < ROWS; i++) {
+                for (int j = 0; j < COLUMNS; j++) {
+                    labels[i][j] = new JLabel(" ", SwingConstants.CENTER);
+                    labels[i][j].setBorder(BorderFactory.createLineBorder(Color.BLACK));
+                    labels[i][j].setOpaque(true);
+                    labels[i][j].setBackground(Color.WHITE);
+                    panel.add(labels[i][j]);
+                }
+            }
+            panel.setSize(WIDTH, HEIGHT);
+            panel.doLayout();
+        }
+
+        @Override
+        public void scoreRow(int row, Graphics2D g) {
+            for (int i = 0; i < COLUMNS; i++) {
+                JLabel label = labels[row][i];
+                label.setText(String.valueOf(GUESS.charAt(i)));
+                label.setBackground(STATUSES[i] == 0 ? Color.GREEN : STATUSES[i] == 1 ? Color.ORANGE : Color.GRAY);
+                Graphics2D child = (Graphics2D) g.create(label.getX(), label.getY(), label.getWidth(), label.getHeight());
+                try {
+                    label.paint(child);
+                } finally {
+                    child.dispose();
+                }
+            }
+        }
+
+        @Override
+        public void reset(Graphics2D g) {
+            for (JLabel[] row : labels) {
+                for (JLabel label : row) {
+                    label.setText(" ");
+                    label.setBackground(Color.WHITE);
+                    label.setBorder(BorderFactory.createLineBorder(Color.BLACK));
+                }
+            }
+            panel.paint(g);
+        }
+    }
+
+    // GameBoard, painting only the row that changed
+    private static final class CustomBoard implements Board {
+        final JComponent board = Game.target("gameBoard", WIDTH, HEIGHT);
+        final IntConsumer setRow = Game.target("setBoardRow", board, GUESS, STATUSES.clone());
+        final Runnable clear = Game.target("clearBoard", board);
+        final Rectangle rowClip = new Rectangle();
+
+        @Override
+        public void scoreRow(int row, Graphics2D g) {
+            setRow.accept(row);
+            int rowHeight = (HEIGHT - 20 - (ROWS - 1) * 5) / ROWS;
+            rowClip.setBounds(0, 10 + row * (rowHeight + 5), WIDTH, rowHeight + 1);
+            g.setClip(rowClip);
+            board.paint(g);
+            g.setClip(null);
+        }
+
+        @Override
+        public void reset(Graphics2D g) {
+            clear.run();
+            board.paint(g);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        painter = board.equals("labels") ? new LabelBoard() : new CustomBoard();
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public void scoreRow() {
+        painter.scoreRow(next++ % ROWS, g);
+    }
+
+    @Benchmark
+    public void reset() {
+        painter.reset(g);
+    }
+}
@@ -0,0 +1,28 @@
+// Game.java
+package numberle.benchmarks;
+
+import java.lang.reflect.Method;
+
+/*
+ * Reaches the game's classes through BenchmarkTargets, which is in the default package
+ * and so cannot be imported. Only used during setup, never inside a measured method.
+ * */
+final class Game {
+    private Game() {
+    }
+
+    // The target with the given name, built from the arguments when the method takes any
+    @SuppressWarnings("unchecked")
+    static <T> T target(String name, Object... args) {
+        try {
+            for (Method method : Class.forName("BenchmarkTargets").getMethods()) {
+                if (method.getName().equals(name) && method.getParameterCount() == args.length) {
+                    return (T) method.invoke(null, args);
+                }
+            }
+            throw new NoSuchMethodException(name);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot look up benchmark target " + name, e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+// GameBenchmark.java
+package numberle.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/*
+ * Starting games and playing a whole scripted game of six guesses, each validated and scored.
+ * */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+    // Six valid guesses that never hit the target below
+    private static final String[] SCRIPT = {"1+2*3=7", "9-3*2=3", "8/4+1=3", "12+3=15", "3*5-6=9", "6+7-4=9"};
+
+    private Runnable initialize;
+    private Runnable startNewGame;
+    private BiFunction<String, String[], Integer> scriptedGame;
+    private String target;
+
+    @Setup
+    public void setUp() {
+        initialize = Game.target("initialize");
+        startNewGame = Game.target("startNewGame");
+        scriptedGame = Game.target("scriptedGame");
+        List<String> corpus = Game.target("corpus");
+        target = corpus.contains("7-2*3=1") ? "7-2*3=1" : corpus.get(0);
+    }
+
+    @Benchmark
+    public void initialize() {
+        initialize.run();
+    }
+
+    @Benchmark
+    public void startNewGame() {
+        startNewGame.run();
+    }
+
+    @Benchmark
+    public Integer scriptedGame() {
+        return scriptedGame.apply(target, SCRIPT);
+    }
+}
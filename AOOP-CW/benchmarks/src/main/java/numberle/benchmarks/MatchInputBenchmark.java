@@ -0,0 +1,72 @@
+// MatchInputBenchmark.java
+package numberle.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/*
+ * NumberleModel.matchInput over random guess/target pairs from the corpus,
+ * either any pair or only pairs where both sides repeat a symbol.
+ * */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchInputBenchmark {
+    private static final int PAIRS = 1024; // power of two, indexed with a mask
+
+    @Param({"random", "duplicates"})
+    public String pairs;
+
+    private BiFunction<char[], String, int[]> matchInput;
+    private char[][] guesses;
+    private String[] targets;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        matchInput = Game.target("matchInput");
+        List<String> corpus = Game.target("corpus");
+        List<String> pool = corpus;
+        if ("duplicates".equals(pairs)) {
+            pool = new ArrayList<>();
+            for (String equation : corpus) {
+                if (hasDuplicateSymbol(equation)) pool.add(equation);
+            }
+        }
+        Random random = new Random(42);
+        guesses = new char[PAIRS][];
+        targets = new String[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            guesses[i] = pool.get(random.nextInt(pool.size())).toCharArray();
+            targets[i] = pool.get(random.nextInt(pool.size()));
+        }
+    }
+
+    private static boolean hasDuplicateSymbol(String equation) {
+        for (int i = 0; i < equation.length(); i++) {
+            if (equation.indexOf(equation.charAt(i), i + 1) >= 0 && equation.charAt(i) != '=') return true;
+        }
+        return false;
+    }
+
+    @Benchmark
+    public int[] matchInput() {
+        int i = next++ & (PAIRS - 1);
+        return matchInput.apply(guesses[i], targets[i]);
+    }
+}
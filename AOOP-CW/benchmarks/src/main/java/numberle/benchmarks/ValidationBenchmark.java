@@ -0,0 +1,95 @@
+// ValidationBenchmark.java
+package numberle.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/*
+ * Validating guesses and evaluating expressions, over a fixed mix of corpus equations
+ * and malformed or unequal inputs.
+ * */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationBenchmark {
+    private static final int INPUTS = 1024; // power of two, indexed with a mask
+    private static final String[] INVALID = {"", "1+2=3", "12+3=1a", "1+2+3=7", "12+34=5", "1=2=3=4", "+12=3+9", "8/0+1=1"};
+
+    private Function<CharSequence, Object> validator;
+    private Predicate<String> controllerValidateInput;
+    private Predicate<CharSequence> dictionary;
+    private ToIntFunction<CharSequence> evaluator;
+    private String[] mixed;
+    private String[] valid;
+    private String[] leftSides;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        validator = Game.target("validator");
+        controllerValidateInput = Game.target("controllerValidateInput");
+        evaluator = Game.target("evaluator");
+        dictionary = Game.target("dictionary");
+        List<String> corpus = Game.target("corpus");
+        Random random = new Random(42);
+        mixed = new String[INPUTS];
+        valid = new String[INPUTS];
+        leftSides = new String[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            String equation = corpus.get(random.nextInt(corpus.size()));
+            valid[i] = equation;
+            leftSides[i] = equation.substring(0, equation.indexOf('='));
+            // One input in four is rejected for some reason
+            mixed[i] = (i & 3) == 0 ? INVALID[random.nextInt(INVALID.length)] : equation;
+        }
+    }
+
+    private int nextIndex() {
+        return next++ & (INPUTS - 1);
+    }
+
+    @Benchmark
+    public Object validateMixed() {
+        return validator.apply(mixed[nextIndex()]);
+    }
+
+    @Benchmark
+    public Object validateValid() {
+        return validator.apply(valid[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean dictionaryMixed() {
+        return dictionary.test(mixed[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean dictionaryValid() {
+        return dictionary.test(valid[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean controllerValidateInput() {
+        return controllerValidateInput.test(valid[nextIndex()]);
+    }
+
+    @Benchmark
+    public int evaluateExpression() {
+        return evaluator.applyAsInt(leftSides[nextIndex()]);
+    }
+}
@@ -0,0 +1,151 @@
+// CLIBatch.java
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Non-interactive CLI for scripts and pipes: one command per input line, one JSON object per
+ * output line, no prompts and no colors.
+ *   new             start a game with a random target
+ *   new <equation>  start a game with the given target
+ *   <guess>         play the guess in the current game
+ * Blank lines and lines starting with '#' are skipped. A guess before any "new" starts a random
+ * game, so a file of guesses alone plays one game.
+ * A target that is not a valid equation gets an error line and the game keeps a random target.
+ * Every guess gets exactly one line back, either the scored guess:
+ *   {"game":1,"turn":1,"guess":"4-1*3=1","feedback":"2202122","remainingAttempts":5,"gameOver":false,"gameWon":false}
+ * (with "target" added once the game is over) or an error in the format of NumberleServer:
+ *   {"game":1,"guess":"1+1+1=4","error":"NOT_EQUAL","message":"..."}
+ * */
+public final class CLIBatch {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final NumberleModel model = new NumberleModel();
+    private final EquationValidator targetValidator = new EquationValidator();
+    private final GuessValidator validator = new GuessValidator();
+    private final StringBuilder line = new StringBuilder(BUFFER_SIZE);
+    private char[] chars = new char[BUFFER_SIZE];
+    private final Writer out;
+    private int game;
+
+    private CLIBatch(Writer out) {
+        this.out = out;
+    }
+
+    // Play every line of in, writing the results to out; returns the number of guesses answered
+    public static long run(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        CLIBatch batch = new CLIBatch(writer);
+        long answered = 0;
+        String command;
+        while ((command = reader.readLine()) != null) {
+            command = command.trim();
+            if (command.isEmpty() || command.charAt(0) == '#') continue;
+            if (command.equals("new") || command.startsWith("new ")) {
+                batch.startGame(command.length() > 4 ? command.substring(4).trim() : null);
+                continue;
+            }
+            batch.guess(command);
+            answered++;
+            // Results go out in large blocks, and right away whenever no more input is waiting
+            boolean idle = !reader.ready();
+            if (idle || batch.line.length() >= BUFFER_SIZE) batch.write(idle);
+        }
+        batch.write(true);
+        return answered;
+    }
+
+    private void write(boolean flush) throws IOException {
+        int length = line.length();
+        if (chars.length < length) chars = new char[length];
+        line.getChars(0, length, chars, 0);
+        line.setLength(0);
+        out.write(chars, 0, length);
+        if (flush) out.flush();
+    }
+
+    // A target that is not a valid equation is reported, and the game keeps its random target
+    private void startGame(String target) {
+        game++;
+        model.initialize();
+        if (target == null) return;
+        ValidationResult result = targetValidator.validate(target);
+        if (result.isValid()) {
+            model.setTargetNumber(target);
+        } else {
+            line.append("{\"game\":").append(game).append(",\"target\":");
+            appendString(target);
+            line.append(",\"error\":\"").append(result.name()).append("\",\"message\":");
+            appendString(result.getMessage());
+            line.append("}\n");
+        }
+    }
+
+    // Append the JSON line for one guess
+    private void guess(String guess) {
+        if (game == 0) startGame(null);
+        line.append("{\"game\":").append(game);
+        GuessValidator.Verdict verdict = validator.validate(guess, model);
+        if (!verdict.isValid()) {
+            error(guess, verdict.getResult().name(), verdict.getMessage());
+            return;
+        }
+        if (model.isGameOver()) {
+            error(guess, "GAME_OVER", "The game is over, start a new one");
+            return;
+        }
+        model.processInput(guess);
+        int turn = model.getGuessCount();
+        int pattern = model.getPattern(turn - 1);
+        line.append(",\"turn\":").append(turn).append(",\"guess\":");
+        appendString(guess);
+        line.append(",\"feedback\":\"");
+        for (int i = 0; i < guess.length(); i++, pattern /= 3) {
+            line.append((char) ('0' + pattern % 3));
+        }
+        line.append("\",\"remainingAttempts\":").append(model.getRemainingAttempts())
+                .append(",\"gameOver\":").append(model.isGameOver())
+                .append(",\"gameWon\":").append(model.isGameWon());
+        if (model.isGameOver()) {
+            line.append(",\"target\":");
+            appendString(model.getTargetNumber());
+        }
+        line.append("}\n");
+    }
+
+    private void error(String guess, String code, String message) {
+        line.append(",\"guess\":");
+        appendString(guess);
+        line.append(",\"error\":\"").append(code).append("\",\"message\":");
+        appendString(message);
+        line.append("}\n");
+    }
+
+    // A JSON string literal; guesses are raw input, so quotes, backslashes and control characters are escaped
+    private void appendString(CharSequence s) {
+        appendString(line, s);
+    }
+
+    // Append s as a JSON string, quoted and escaped; NumberleServer escapes with it too
+    static StringBuilder appendString(StringBuilder out, CharSequence s) {
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < ' ') {
+                out.append("\\u00");
+                out.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"');
+    }
+}
@@ -0,0 +1,36 @@
+// CLIBatch test.java
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CLIBatchTest {
+
+    private static String[] run(String input) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CLIBatch.run(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+    }
+
+    @Test
+    void testOneLinePerGuess() throws IOException {
+        String[] lines = run("new 2+3*2=8\n4-1*3=1\n\n# comment\n2+3*2=8\n2+3*2=8\n");
+        assertEquals(3, lines.length, "Blank lines and comments get no answer.");
+        assertEquals("{\"game\":1,\"turn\":1,\"guess\":\"4-1*3=1\",\"feedback\":\"2220102\",\"remainingAttempts\":5,"
+                + "\"gameOver\":false,\"gameWon\":false}", lines[0]);
+        assertTrue(lines[1].endsWith("\"gameOver\":true,\"gameWon\":true,\"target\":\"2+3*2=8\"}"));
+        assertTrue(lines[2].contains("\"error\":\"GAME_OVER\""), "No guesses after the game is over.");
+    }
+
+    @Test
+    void testErrorsAreEscapedJson() throws IOException {
+        String[] lines = run("new 2+3*2=8\n\"1\\2\n");
+        assertEquals("{\"game\":1,\"guess\":\"\\\"1\\\\2\",\"error\":\"INVALID_LENGTH\",\"message\":\""
+                + ValidationResult.INVALID_LENGTH.getMessage() + "\"}", lines[0]);
+    }
+}
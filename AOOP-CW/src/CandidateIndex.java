@@ -0,0 +1,212 @@
+// CandidateIndex.java
+import java.util.Arrays;
+
+/*
+ * The corpus entries that are still possible targets in the current game, as a long[] bitset
+ * indexed by row (the order of EquationCorpus.rowsOfLength).
+ *
+ * Narrowing uses shared precomputed masks instead of rescoring every entry:
+ * one bitset per (position, symbol) and one per (symbol, "occurs at least k times"),
+ * so a guess costs a handful of word-wise AND/ANDNOT passes.
+ * The per-position allowed symbols and per-symbol count bounds seen so far are kept alongside.
+ * Brackets (EquationAlphabet.OTHER) never narrow the set.
+ * */
+public final class CandidateIndex {
+    private final Masks masks;
+    private final long[] bits;
+    private int count;
+    private final short[] allowed;   // per position, bit s set if symbol s may still be there
+    private final byte[] minCount;   // per symbol, least number of occurrences
+    private final byte[] maxCount;   // per symbol, most number of occurrences
+
+    public CandidateIndex(EquationCorpus corpus, int length) {
+        this(new Masks(corpus, length));
+    }
+
+    CandidateIndex(Masks masks) {
+        this.masks = masks;
+        this.bits = new long[masks.words];
+        this.allowed = new short[masks.length];
+        this.minCount = new byte[EquationAlphabet.SIZE];
+        this.maxCount = new byte[EquationAlphabet.SIZE];
+        reset();
+    }
+
+    // Index over the shared corpus for the game length
+    static CandidateIndex forSharedCorpus() {
+        return new CandidateIndex(Masks.Shared.INSTANCE);
+    }
+
+    // Every entry is possible again
+    void reset() {
+        Arrays.fill(bits, -1L);
+        int tail = masks.rows & 63;
+        if (tail != 0) bits[bits.length - 1] = (1L << tail) - 1;
+        count = masks.rows;
+        Arrays.fill(allowed, (short) 0xFFFF);
+        Arrays.fill(minCount, (byte) 0);
+        Arrays.fill(maxCount, (byte) masks.length);
+    }
+
+    // Keep only the entries that would have produced this pattern for this guess
+    void narrow(CharSequence guess, int pattern) {
+        assert guess.length() == masks.length : "Guess must be " + masks.length + " characters long";
+        long found = 0;    // greens + yellows per symbol, 4 bits each
+        int absent = 0;    // symbols with at least one grey
+        for (int p = 0; p < masks.length; p++) {
+            int status = pattern % 3;
+            pattern /= 3;
+            int s = EquationAlphabet.indexOf(guess.charAt(p));
+            if (s == EquationAlphabet.OTHER) continue;
+            if (status == FeedbackEngine.CORRECT) {
+                and(masks.at[p][s]);
+                allowed[p] = (short) (1 << s);
+                found += 1L << (s << 2);
+            } else {
+                andNot(masks.at[p][s]);
+                allowed[p] &= (short) ~(1 << s);
+                if (status == FeedbackEngine.PRESENT) {
+                    found += 1L << (s << 2);
+                } else {
+                    absent |= 1 << s;
+                }
+            }
+        }
+        for (int s = 0; s < EquationAlphabet.OTHER; s++) {
+            int m = (int) ((found >>> (s << 2)) & 0xF);
+            if (m > 0) {
+                and(masks.atLeast[s][m]);
+                if (m > minCount[s]) minCount[s] = (byte) m;
+            }
+            if ((absent & (1 << s)) != 0) {
+                // A grey means the target has exactly as many as were found
+                if (m + 1 <= masks.length) andNot(masks.atLeast[s][m + 1]);
+                if (m < maxCount[s]) maxCount[s] = (byte) m;
+                if (m == 0) {
+                    for (int p = 0; p < masks.length; p++) {
+                        allowed[p] &= (short) ~(1 << s);
+                    }
+                }
+            }
+        }
+        int total = 0;
+        for (long word : bits) {
+            total += Long.bitCount(word);
+        }
+        count = total;
+    }
+
+    private void and(long[] mask) {
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] &= mask[i];
+        }
+    }
+
+    private void andNot(long[] mask) {
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] &= ~mask[i];
+        }
+    }
+
+    // Equation length, and the corpus rows the index is over, for NumberleSolver
+    int length() {
+        return masks.length;
+    }
+
+    int rows() {
+        return masks.rows;
+    }
+
+    byte[] symbols() {
+        return masks.symbols;
+    }
+
+    // Number of entries still possible
+    public int count() {
+        return count;
+    }
+
+    public boolean contains(int row) {
+        return (bits[row >>> 6] & (1L << row)) != 0;
+    }
+
+    // First remaining row at or after fromRow, or -1 when there is none
+    public int next(int fromRow) {
+        if (fromRow >= masks.rows) return -1;
+        int word = fromRow >>> 6;
+        long current = bits[word] & (-1L << fromRow);
+        while (current == 0) {
+            if (++word == bits.length) return -1;
+            current = bits[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(current);
+    }
+
+    // The equation stored at a row
+    public String equationAt(int row) {
+        char[] chars = new char[masks.length];
+        for (int i = 0; i < masks.length; i++) {
+            chars[i] = (char) masks.symbols[row * masks.length + i];
+        }
+        return new String(chars);
+    }
+
+    // Whether the symbol could still be at the position
+    public boolean isAllowed(int position, char symbol) {
+        int s = EquationAlphabet.indexOf(symbol);
+        return s == EquationAlphabet.OTHER || (allowed[position] & (1 << s)) != 0;
+    }
+
+    // Least number of times the symbol must occur, from the feedback so far
+    public int minCount(char symbol) {
+        int s = EquationAlphabet.indexOf(symbol);
+        return s == EquationAlphabet.OTHER ? 0 : minCount[s];
+    }
+
+    // Most number of times the symbol may occur, from the feedback so far
+    public int maxCount(char symbol) {
+        int s = EquationAlphabet.indexOf(symbol);
+        return s == EquationAlphabet.OTHER ? masks.length : maxCount[s];
+    }
+
+    /*
+     * Immutable bitsets over one corpus, shared by every index built on it.
+     * */
+    static final class Masks {
+        final int length;
+        final int rows;
+        final int words;
+        final byte[] symbols;
+        final long[][][] at;       // [position][symbol] -> rows with that symbol there
+        final long[][][] atLeast;  // [symbol][k] -> rows with at least k of that symbol, k >= 1
+
+        private static final class Shared {
+            static final Masks INSTANCE = new Masks(EquationCorpus.getInstance(), INumberleModel.EQUATION_LENGTH);
+        }
+
+        Masks(EquationCorpus corpus, int length) {
+            this.length = length;
+            this.symbols = corpus.rowsOfLength(length);
+            this.rows = symbols.length / length;
+            this.words = (rows + 63) >>> 6;
+            this.at = new long[length][EquationAlphabet.SIZE][words];
+            this.atLeast = new long[EquationAlphabet.SIZE][length + 1][words];
+            int[] counts = new int[EquationAlphabet.SIZE];
+            for (int row = 0; row < rows; row++) {
+                long bit = 1L << row;
+                int word = row >>> 6;
+                Arrays.fill(counts, 0);
+                for (int p = 0; p < length; p++) {
+                    int s = EquationAlphabet.indexOf((char) symbols[row * length + p]);
+                    at[p][s][word] |= bit;
+                    counts[s]++;
+                }
+                for (int s = 0; s < EquationAlphabet.SIZE; s++) {
+                    for (int k = 1; k <= counts[s]; k++) {
+                        atLeast[s][k][word] |= bit;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+// CandidateIndex test.java
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandidateIndexTest {
+    private static final String[] GUESSES = {"1+2*3=7", "9-3*2=3", "8/4+1=3"};
+
+    @Test
+    void testNarrowingMatchesRescoring() {
+        NumberleModel model = new NumberleModel();
+        EquationCorpus corpus = EquationCorpus.getInstance();
+        for (int t = 0; t < corpus.size(); t += 7) {
+            model.initialize();
+            model.setTargetNumber(corpus.get(t));
+            CandidateIndex candidates = model.getRemainingCandidates();
+            assertEquals(corpus.size(), candidates.count(), "Every entry is possible before the first guess.");
+            for (int played = 1; played <= GUESSES.length; played++) {
+                model.processInput(GUESSES[played - 1]);
+                assertSameAsRescoring(candidates, corpus, corpus.get(t), played);
+            }
+            assertTrue(candidates.contains(t), "The target must never be ruled out.");
+        }
+    }
+
+    @Test
+    void testLateSubscriberCatchesUp() {
+        NumberleModel model = new NumberleModel();
+        model.initialize();
+        model.setTargetNumber("2+3*2=8");
+        model.processInput("4-1*3=1");
+        // The index is created after the guess, so it has to replay it
+        CandidateIndex candidates = model.getRemainingCandidates();
+        for (int row = candidates.next(0); row >= 0; row = candidates.next(row + 1)) {
+            assertEquals(FeedbackEngine.score("4-1*3=1", "2+3*2=8"),
+                    FeedbackEngine.score("4-1*3=1", candidates.equationAt(row)));
+        }
+        assertFalse(candidates.isAllowed(0, '4'), "A grey symbol cannot be at its guessed position.");
+        assertEquals(0, candidates.maxCount('1'), "A symbol that is only grey cannot occur at all.");
+    }
+
+    // The bitset must hold exactly the entries that give the same feedback for every guess played
+    private static void assertSameAsRescoring(CandidateIndex candidates, EquationCorpus corpus, String target, int played) {
+        int expected = 0;
+        for (int i = 0; i < corpus.size(); i++) {
+            boolean consistent = true;
+            for (int g = 0; g < played; g++) {
+                consistent &= FeedbackEngine.score(GUESSES[g], corpus.get(i)) == FeedbackEngine.score(GUESSES[g], target);
+            }
+            assertEquals(consistent, candidates.contains(i), "Entry " + corpus.get(i) + " after " + played + " guesses");
+            if (consistent) expected++;
+        }
+        assertEquals(expected, candidates.count(), "count() must agree with the bits.");
+    }
+}
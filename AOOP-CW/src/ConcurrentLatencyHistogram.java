@@ -0,0 +1,41 @@
+// ConcurrentLatencyHistogram.java
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Thread-safe counterpart of LatencyHistogram with the same buckets, for recording from many
+ * threads at once. Recording is one atomic increment plus two striped adders, never a lock.
+ * Read it through snapshot(), which copies the counts into a plain LatencyHistogram.
+ * */
+public final class ConcurrentLatencyHistogram {
+    private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.getAndIncrement(LatencyHistogram.bucketOf(nanos));
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    // Values recorded while the snapshot is taken may or may not be included
+    public LatencyHistogram snapshot() {
+        LatencyHistogram copy = new LatencyHistogram();
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            long count = counts.get(i);
+            if (count != 0) copy.add(i, count, 0, 0);
+        }
+        copy.add(0, 0, sum.sum(), max.get());
+        return copy;
+    }
+
+    public void reset() {
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        sum.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,37 @@
+// ConcurrentLatencyHistogram test.java
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentLatencyHistogramTest {
+    @Test
+    void testSnapshotMatchesSingleThreadedHistogram() throws InterruptedException {
+        ConcurrentLatencyHistogram concurrent = new ConcurrentLatencyHistogram();
+        LatencyHistogram expected = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (long value = 1; value <= 100_000; value++) {
+                    concurrent.record(value * 37);
+                }
+            });
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; t++) {
+            for (long value = 1; value <= 100_000; value++) {
+                expected.record(value * 37);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencyHistogram snapshot = concurrent.snapshot();
+        assertEquals(expected.getCount(), snapshot.getCount(), "No recording may be lost.");
+        assertEquals(expected.getMax(), snapshot.getMax());
+        assertEquals(expected.getMean(), snapshot.getMean(), 1e-6);
+        assertEquals(expected.percentile(99), snapshot.percentile(99));
+
+        concurrent.reset();
+        assertEquals(0, concurrent.snapshot().getCount(), "Reset clears every bucket.");
+    }
+}
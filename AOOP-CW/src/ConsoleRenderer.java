@@ -0,0 +1,115 @@
+// ConsoleRenderer.java
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+ * Builds each screen of the CLI in one reusable buffer and writes it with a single call,
+ * instead of a print per character. Nothing reaches the terminal until flush(), so callers
+ * append everything a turn shows (feedback row, keyboard, prompt) and flush once.
+ * */
+public final class ConsoleRenderer {
+    static final String RED = "\033[31m";
+    static final String GREEN = "\033[32m";
+    static final String YELLOW = "\033[93m";
+    static final String GREY = "\033[37m";
+    static final String RESET = "\033[0m";
+    private static final String RULE = "_________________________________________";
+
+    private final Writer out;
+    private final StringBuilder frame = new StringBuilder(1024);
+    private char[] chars = new char[1024];
+    // Colored rendering of every key, only rebuilt for keys whose status changed
+    private final String[] renderedKeys = new String[EquationAlphabet.SYMBOLS.length()];
+
+    public ConsoleRenderer(OutputStream out) {
+        this.out = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    }
+
+    public ConsoleRenderer line(String text) {
+        frame.append(text).append('\n');
+        return this;
+    }
+
+    public ConsoleRenderer line(String color, String text) {
+        frame.append(color).append(text).append(RESET).append('\n');
+        return this;
+    }
+
+    // Text that is already split into lines, such as the statistics tables
+    public ConsoleRenderer text(String text) {
+        frame.append(text);
+        return this;
+    }
+
+    public ConsoleRenderer error(String message) {
+        frame.append(RULE).append('\n');
+        line(RED, message);
+        frame.append(RULE).append('\n');
+        return this;
+    }
+
+    public ConsoleRenderer prompt(int remainingAttempts) {
+        frame.append(" \n");
+        line(RED, "Remaining attempts: " + remainingAttempts);
+        line("You can use the numbers 0-9 and operators such as: + - * / =");
+        return line("Please enter your guess (7 characters including numbers and operators), 'hint' for a suggestion or 'stats' for your statistics");
+    }
+
+    // The guess with every symbol in the color of its status
+    public ConsoleRenderer feedback(CharSequence guess, int[] matchResults) {
+        frame.append("\nThe input does not match, the matching result is as follows:\n");
+        for (int i = 0; i < guess.length(); i++) {
+            frame.append(colorOf(matchResults[i])).append(guess.charAt(i)).append(RESET).append(' ');
+        }
+        frame.append('\n');
+        return this;
+    }
+
+    // Every key in the color of its best status so far, changed is the mask returned by KeyboardState
+    public ConsoleRenderer keyboard(KeyboardState keyboard, int changed) {
+        for (int code = 0; code < renderedKeys.length; code++) {
+            if (renderedKeys[code] != null && (changed & (1 << code)) == 0) continue;
+            char c = EquationAlphabet.symbolAt(code);
+            int status = keyboard.statusAt(code);
+            renderedKeys[code] = status == KeyboardState.UNKNOWN ? String.valueOf(c) : colorOf(status) + c + RESET;
+        }
+        frame.append("Keyboard: ");
+        for (String key : renderedKeys) {
+            frame.append(key).append(' ');
+        }
+        frame.append('\n');
+        return this;
+    }
+
+    // Forget the rendered keys, for a new game
+    public void resetKeyboard() {
+        Arrays.fill(renderedKeys, null);
+    }
+
+    private static String colorOf(int status) {
+        switch (status) {
+            case FeedbackEngine.CORRECT: return GREEN;
+            case FeedbackEngine.PRESENT: return YELLOW;
+            default: return GREY;
+        }
+    }
+
+    // Write the frame in one call and start the next one
+    public void flush() {
+        int length = frame.length();
+        if (chars.length < length) chars = new char[Math.max(length, chars.length * 2)];
+        frame.getChars(0, length, chars, 0);
+        frame.setLength(0);
+        try {
+            out.write(chars, 0, length);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,413 @@
+// CorpusVerifier.java
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/*
+ * Checks every line of an equation file the way the game would check a guess, and finds duplicates.
+ * The file is cut into line-aligned chunks that are memory-mapped and validated in parallel,
+ * each with its own EquationValidator. Chunks only count their own lines; a prefix sum over the
+ * counts afterwards turns chunk-local line numbers into file line numbers. Duplicates are found
+ * in one ordered pass over the packed codes of the valid entries with an open-addressing int map,
+ * so the first copy of an equation is kept and every later copy points back to it.
+ * Blank lines are skipped and surrounding whitespace is trimmed, as EquationCorpus does.
+ * */
+public final class CorpusVerifier {
+    // Chunks are at least this big, so small files are not split into more tasks than they are worth
+    private static final long MIN_CHUNK = 1L << 20;
+    // Only this many failures are kept with their text, the rest are only counted
+    private static final int MAX_REPORTED = 1000;
+
+    // One rejected or duplicate line
+    public static final class Failure {
+        private final long line;
+        private final String text;
+        private final String reason;
+
+        Failure(long line, String text, String reason) {
+            this.line = line;
+            this.text = text;
+            this.reason = reason;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + text + " (" + reason + ")";
+        }
+    }
+
+    // Outcome of a verification
+    public static final class Report {
+        private long lines;
+        private long entries;
+        private long duplicates;
+        private final long[] rejected = new long[ValidationResult.values().length];
+        private final List<Failure> failures = new ArrayList<>();
+        private long millis;
+
+        public long getLines() {
+            return lines;
+        }
+
+        // Non-blank lines
+        public long getEntries() {
+            return entries;
+        }
+
+        public long getRejected(ValidationResult result) {
+            return rejected[result.ordinal()];
+        }
+
+        public long getInvalid() {
+            long invalid = 0;
+            for (long count : rejected) invalid += count;
+            return invalid;
+        }
+
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        // Valid entries without their duplicates
+        public long getUnique() {
+            return entries - getInvalid() - duplicates;
+        }
+
+        public boolean isClean() {
+            return getInvalid() == 0 && duplicates == 0;
+        }
+
+        // Invalid lines then duplicates, each in line order, at most MAX_REPORTED in all
+        public List<Failure> getFailures() {
+            return failures;
+        }
+
+        public String describe() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%d lines, %d entries, %d valid and unique, %d invalid, %d duplicates in %d ms%n",
+                    lines, entries, getUnique(), getInvalid(), duplicates, millis));
+            for (ValidationResult result : ValidationResult.values()) {
+                if (rejected[result.ordinal()] > 0) {
+                    sb.append(String.format("  %-20s %d%n", result.name(), rejected[result.ordinal()]));
+                }
+            }
+            for (Failure failure : failures) {
+                sb.append(failure).append(System.lineSeparator());
+            }
+            long unreported = getInvalid() + duplicates - failures.size();
+            if (unreported > 0) sb.append("... and ").append(unreported).append(" more").append(System.lineSeparator());
+            return sb.toString();
+        }
+    }
+
+    // What one chunk found, with line numbers counted from the start of the chunk
+    private static final class Chunk {
+        final long start;
+        final long end;
+        long lines;
+        long entries;
+        final long[] rejected = new long[ValidationResult.values().length];
+        final List<Failure> failures = new ArrayList<>();
+        // Valid entries in order: packed code and local line, or the text for entries that do not pack
+        int[] codes = new int[256];
+        long[] codeLines = new long[256];
+        int codeCount;
+        final List<Failure> unpacked = new ArrayList<>();
+
+        Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        void addCode(int code, long line) {
+            if (codeCount == codes.length) {
+                codes = Arrays.copyOf(codes, codeCount * 2);
+                codeLines = Arrays.copyOf(codeLines, codeCount * 2);
+            }
+            codes[codeCount] = code;
+            codeLines[codeCount++] = line;
+        }
+    }
+
+    // The bytes of one line, as a CharSequence the validator can read without a String per line
+    private static final class AsciiLine implements CharSequence {
+        byte[] bytes = new byte[64];
+        int length;
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private CorpusVerifier() {
+    }
+
+    // Verify a file of equations of the given length; unique, if not null, receives the valid entries once each
+    public static Report verify(Path file, int length, OutputStream unique) throws IOException {
+        return verify(file, length, unique, MIN_CHUNK);
+    }
+
+    // Same, with smaller chunks for tests that need more than one
+    static Report verify(Path file, int length, OutputStream unique, long minChunk) throws IOException {
+        long begin = System.nanoTime();
+        Chunk[] chunks;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r");
+             FileChannel channel = raf.getChannel()) {
+            chunks = split(channel, minChunk);
+            Chunk[] work = chunks;
+            IntStream.range(0, work.length).parallel().forEach(i -> {
+                try {
+                    scan(channel, work[i], length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        Report report = merge(chunks, unique);
+        report.millis = (System.nanoTime() - begin) / 1_000_000;
+        return report;
+    }
+
+    // Cut the file into chunks that each end just after a newline (or at the end of the file)
+    private static Chunk[] split(FileChannel channel, long minChunk) throws IOException {
+        long size = channel.size();
+        int parallelism = Runtime.getRuntime().availableProcessors() * 4;
+        long target = Math.max(minChunk, size / parallelism + 1);
+        List<Chunk> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + target);
+            // Move the cut forward to the next newline
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                int i = 0;
+                while (i < read && probe.get(i) != '\n') i++;
+                end += i;
+                if (i < read) {
+                    end++;
+                    break;
+                }
+            }
+            chunks.add(new Chunk(start, end));
+            start = end;
+        }
+        return chunks.toArray(new Chunk[0]);
+    }
+
+    private static void scan(FileChannel channel, Chunk chunk, int length) throws IOException {
+        EquationValidator validator = new EquationValidator(length);
+        AsciiLine line = new AsciiLine();
+        long size = chunk.end - chunk.start;
+        // A single mapping cannot exceed 2 GB, so very large chunks are mapped in pieces of whole lines
+        long position = 0;
+        while (position < size) {
+            long window = Math.min(size - position, Integer.MAX_VALUE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start + position, window);
+            int limit = (int) window;
+            if (position + window < size) {
+                while (limit > 0 && buffer.get(limit - 1) != '\n') limit--;
+                if (limit == 0) limit = (int) window; // a line longer than a mapping is cut, and rejected
+            }
+            int lineStart = 0;
+            for (int i = 0; i <= limit; i++) {
+                if (i < limit && buffer.get(i) != '\n') continue;
+                if (i == limit && i == lineStart) break; // nothing after the last newline
+                chunk.lines++;
+                check(buffer, lineStart, i, chunk, line, validator);
+                lineStart = i + 1;
+            }
+            position += limit;
+        }
+    }
+
+    private static void check(MappedByteBuffer buffer, int from, int to, Chunk chunk, AsciiLine line,
+                              EquationValidator validator) {
+        while (to > from && buffer.get(to - 1) <= ' ') to--;
+        while (from < to && buffer.get(from) <= ' ') from++;
+        if (to == from) return;
+        chunk.entries++;
+        int length = to - from;
+        if (line.bytes.length < length) line.bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            line.bytes[i] = buffer.get(from + i);
+        }
+        line.length = length;
+        ValidationResult result = validator.validate(line);
+        if (!result.isValid()) {
+            chunk.rejected[result.ordinal()]++;
+            if (chunk.failures.size() < MAX_REPORTED) {
+                chunk.failures.add(new Failure(chunk.lines, line.toString(), result.getMessage()));
+            }
+            return;
+        }
+        int code = PackedEquation.encode(line.bytes, 0, length);
+        if (code != PackedEquation.INVALID) {
+            chunk.addCode(code, chunk.lines);
+        } else {
+            chunk.unpacked.add(new Failure(chunk.lines, line.toString(), null));
+        }
+    }
+
+    // Number the lines across chunks and find duplicates in file order
+    private static Report merge(Chunk[] chunks, OutputStream unique) throws IOException {
+        Report report = new Report();
+        FirstLines first = new FirstLines();
+        Map<String, Long> firstUnpacked = new HashMap<>();
+        List<Failure> duplicates = new ArrayList<>();
+        long lineOffset = 0; // lines in the chunks before this one
+        for (Chunk chunk : chunks) {
+            report.lines += chunk.lines;
+            report.entries += chunk.entries;
+            for (int r = 0; r < chunk.rejected.length; r++) {
+                report.rejected[r] += chunk.rejected[r];
+            }
+            for (Failure failure : chunk.failures) {
+                report.failures.add(new Failure(lineOffset + failure.line, failure.text, failure.reason));
+            }
+            for (int i = 0; i < chunk.codeCount; i++) {
+                long line = lineOffset + chunk.codeLines[i];
+                long original = first.putIfAbsent(chunk.codes[i], line);
+                if (original < 0) {
+                    if (unique != null) write(unique, PackedEquation.decode(chunk.codes[i]));
+                } else {
+                    report.duplicates++;
+                    if (duplicates.size() < MAX_REPORTED) {
+                        duplicates.add(new Failure(line, PackedEquation.decode(chunk.codes[i]), "duplicate of line " + original));
+                    }
+                }
+            }
+            for (Failure entry : chunk.unpacked) {
+                long line = lineOffset + entry.line;
+                Long original = firstUnpacked.putIfAbsent(entry.text, line);
+                if (original == null) {
+                    if (unique != null) write(unique, entry.text);
+                } else {
+                    report.duplicates++;
+                    if (duplicates.size() < MAX_REPORTED) {
+                        duplicates.add(new Failure(line, entry.text, "duplicate of line " + original));
+                    }
+                }
+            }
+            lineOffset += chunk.lines;
+        }
+        // Invalid lines come first, duplicates fill whatever room is left
+        if (report.failures.size() > MAX_REPORTED) report.failures.subList(MAX_REPORTED, report.failures.size()).clear();
+        report.failures.addAll(duplicates.subList(0, Math.min(duplicates.size(), MAX_REPORTED - report.failures.size())));
+        return report;
+    }
+
+    private static void write(OutputStream out, String equation) throws IOException {
+        out.write(equation.getBytes(StandardCharsets.US_ASCII));
+        out.write('\n');
+    }
+
+    // Packed code -> line of its first occurrence, open addressing with linear probing
+    private static final class FirstLines {
+        private int[] codes = new int[1 << 16];
+        private long[] lines = new long[1 << 16];
+        private int size;
+
+        FirstLines() {
+            Arrays.fill(codes, PackedEquation.INVALID);
+        }
+
+        // The line already stored for the code, or -1 after storing this one
+        long putIfAbsent(int code, long line) {
+            int mask = codes.length - 1;
+            int slot = PackedEquation.hash(code) & mask;
+            while (codes[slot] != PackedEquation.INVALID) {
+                if (codes[slot] == code) return lines[slot];
+                slot = (slot + 1) & mask;
+            }
+            codes[slot] = code;
+            lines[slot] = line;
+            if (++size * 2 > codes.length) grow();
+            return -1;
+        }
+
+        private void grow() {
+            int[] oldCodes = codes;
+            long[] oldLines = lines;
+            codes = new int[oldCodes.length * 2];
+            lines = new long[oldCodes.length * 2];
+            Arrays.fill(codes, PackedEquation.INVALID);
+            int mask = codes.length - 1;
+            for (int i = 0; i < oldCodes.length; i++) {
+                if (oldCodes[i] == PackedEquation.INVALID) continue;
+                int slot = PackedEquation.hash(oldCodes[i]) & mask;
+                while (codes[slot] != PackedEquation.INVALID) slot = (slot + 1) & mask;
+                codes[slot] = oldCodes[i];
+                lines[slot] = oldLines[i];
+            }
+        }
+    }
+
+    // Usage: CorpusVerifier [file] [--length 7] [--unique output file]
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(System.getProperty("user.dir"), EquationCorpus.FILE_NAME);
+        int length = INumberleModel.EQUATION_LENGTH;
+        String output = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--length": length = Integer.parseInt(args[++i]); break;
+                case "--unique": output = args[++i]; break;
+                default: file = Paths.get(args[i]);
+            }
+        }
+        Report report;
+        if (output == null) {
+            report = verify(file, length, null);
+        } else {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(output), 1 << 16)) {
+                report = verify(file, length, out);
+            }
+        }
+        System.out.print(file + ": " + report.describe());
+        System.exit(report.isClean() ? 0 : 1);
+    }
+}
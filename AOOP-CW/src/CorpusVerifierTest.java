@@ -0,0 +1,47 @@
+// CorpusVerifier test.java
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorpusVerifierTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testLineNumbersAcrossChunks() throws IOException {
+        Path file = directory.resolve("equations.txt");
+        Files.write(file, ("2+3*2=8\n\n9-3*2=3\r\n1+1=3+0\n4/0=0+4\n2+3*2=8\n 10+5=15\n12+2=14").getBytes(StandardCharsets.US_ASCII));
+        ByteArrayOutputStream unique = new ByteArrayOutputStream();
+        // Chunks of a few bytes, so every line number has to come from the prefix sum
+        CorpusVerifier.Report report = CorpusVerifier.verify(file, 7, unique, 10);
+        assertEquals(8, report.getLines());
+        assertEquals(7, report.getEntries(), "The blank line is not an entry.");
+        assertEquals(1, report.getRejected(ValidationResult.NOT_EQUAL));
+        assertEquals(1, report.getRejected(ValidationResult.DIVISION_BY_ZERO));
+        assertEquals(1, report.getDuplicates());
+        assertEquals(4, report.getUnique());
+        assertFalse(report.isClean());
+        assertEquals(4, report.getFailures().get(0).getLine());
+        assertEquals(5, report.getFailures().get(1).getLine());
+        CorpusVerifier.Failure duplicate = report.getFailures().get(2);
+        assertEquals(6, duplicate.getLine());
+        assertEquals("duplicate of line 1", duplicate.getReason());
+        assertEquals("2+3*2=8\n9-3*2=3\n10+5=15\n12+2=14\n", new String(unique.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testShippedCorpusIsClean() throws IOException {
+        CorpusVerifier.Report report = CorpusVerifier.verify(
+                Paths.get(System.getProperty("user.dir"), EquationCorpus.FILE_NAME), 7, null);
+        assertTrue(report.isClean(), report.describe());
+    }
+}
@@ -0,0 +1,580 @@
+// DecisionTree.java
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+/*
+ * A precomputed strategy for the corpus: the guess to play at the start, and for every feedback
+ * pattern that guess can get, the node to continue from. Following the tree with the feedback
+ * the game gives is a binary search per turn, so a hint needs no search at all.
+ * The builder searches offline. At each node it keeps the few guesses with the highest entropy
+ * (the beam), solves the candidate groups each of them leaves in parallel on a fork/join pool,
+ * and picks the guess that solves the node's candidates in the fewest guesses in total.
+ * Candidate sets reached along different paths are solved once and shared, so the saved tree
+ * is a DAG of nodes with edges in compressed rows.
+ *
+ * File layout (big-endian):
+ *   int magic, int version, int length, int nodes, int edges, int targets,
+ *   long corpus checksum, long total guesses, int worst case, int reserved
+ *   then nodes ints (guess of each node as a PackedEquation code),
+ *   nodes + 1 ints (first edge of each node), edges shorts (patterns, ascending per node),
+ *   edges ints (child node of each edge)
+ * Node 0 is the root. A node has no edge for the all-correct pattern, the game is over there.
+ * */
+public final class DecisionTree {
+    public static final String FILE_NAME = "decision-tree.bin";
+    public static final int ROOT = 0;
+    public static final int NONE = -1; // off the tree: the player did not follow it, or the target is not in the corpus
+    public static final int DEFAULT_BEAM = 3;
+    private static final int MAGIC = 0x4E424454; // "NBDT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 48;
+
+    private final int length;
+    private final long checksum;
+    private final int targets;
+    private final long totalGuesses;
+    private final int worstCase;
+    private final int[] guesses;
+    private final int[] firstEdge;
+    private final short[] edgePatterns;
+    private final int[] edgeChildren;
+
+    private static final class Holder {
+        static final DecisionTree INSTANCE = loadOrNull(EquationCorpus.getInstance(),
+                Paths.get(System.getProperty("user.dir"), FILE_NAME));
+    }
+
+    private DecisionTree(int length, long checksum, int targets, long totalGuesses, int worstCase,
+                         int[] guesses, int[] firstEdge, short[] edgePatterns, int[] edgeChildren) {
+        this.length = length;
+        this.checksum = checksum;
+        this.targets = targets;
+        this.totalGuesses = totalGuesses;
+        this.worstCase = worstCase;
+        this.guesses = guesses;
+        this.firstEdge = firstEdge;
+        this.edgePatterns = edgePatterns;
+        this.edgeChildren = edgeChildren;
+    }
+
+    // Tree for the shared corpus from the working directory, or null when there is none for this corpus
+    public static DecisionTree getShared() {
+        return Holder.INSTANCE;
+    }
+
+    private static DecisionTree loadOrNull(EquationCorpus corpus, Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            DecisionTree tree = load(file);
+            if (tree.checksum == corpus.checksum() && tree.length == INumberleModel.EQUATION_LENGTH) return tree;
+            System.err.println("Ignoring " + file + ", it was built for another corpus");
+        } catch (IOException e) {
+            System.err.println("Decision tree unavailable, hints will be searched: " + e.getMessage());
+        }
+        return null;
+    }
+
+    // The guess to play at this node
+    public String guessAt(int node) {
+        return PackedEquation.decode(guesses[node]);
+    }
+
+    // Where the tree goes once the guess of node got this pattern, NONE if no target in the corpus gives it
+    public int next(int node, int pattern) {
+        int low = firstEdge[node];
+        int high = firstEdge[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int found = edgePatterns[mid];
+            if (found < pattern) {
+                low = mid + 1;
+            } else if (found > pattern) {
+                high = mid - 1;
+            } else {
+                return edgeChildren[mid];
+            }
+        }
+        return NONE;
+    }
+
+    // The node after the player guessed guess at node and got pattern; NONE once the guess was not the tree's
+    public int follow(int node, CharSequence guess, int pattern) {
+        if (node == NONE || PackedEquation.encode(guess) != guesses[node]) return NONE;
+        return next(node, pattern);
+    }
+
+    // Guesses the tree takes to find the target, or -1 if the target is not one the tree was built for
+    public int guessesFor(CharSequence target) {
+        int code = PackedEquation.encode(target);
+        if (code == PackedEquation.INVALID || target.length() != length) return -1;
+        int node = ROOT;
+        for (int turn = 1; node != NONE && turn <= guesses.length; turn++) {
+            if (guesses[node] == code) return turn;
+            node = next(node, FeedbackEngine.score(guesses[node], code));
+        }
+        return -1;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getNodes() {
+        return guesses.length;
+    }
+
+    public int getTargets() {
+        return targets;
+    }
+
+    // Guesses over every target, each target playing the tree to the end
+    public long getTotalGuesses() {
+        return totalGuesses;
+    }
+
+    public double getAverageGuesses() {
+        return targets == 0 ? 0 : (double) totalGuesses / targets;
+    }
+
+    public int getWorstCase() {
+        return worstCase;
+    }
+
+    // Search the tree for every distinct entry of the corpus with the given length
+    public static DecisionTree build(EquationCorpus corpus, int length, int beam) {
+        if (length > PackedEquation.MAX_LENGTH) {
+            throw new IllegalArgumentException("Equations of length " + length + " do not pack into an int");
+        }
+        int[] rows = IntStream.of(corpus.packedRowsOfLength(length)).distinct().toArray();
+        if (rows.length == 0) throw new IllegalArgumentException("The corpus has no equations of length " + length);
+        Builder builder = new Builder(rows, length, Math.max(1, beam));
+        // The shared pool, like EquationGenerator, so no worker threads are left behind after the build
+        Plan root = ForkJoinPool.commonPool().invoke(builder.new SolveTask(IntStream.range(0, rows.length).toArray()));
+        return flatten(root, rows, length, corpus.checksum());
+    }
+
+    // Number the plans breadth first, with shared plans and leaves of the same guess kept once
+    private static DecisionTree flatten(Plan root, int[] rows, int length, long checksum) {
+        Map<Plan, Integer> ids = new IdentityHashMap<>();
+        int[] leafIds = new int[rows.length];
+        Arrays.fill(leafIds, NONE);
+        List<Plan> order = new ArrayList<>();
+        ArrayDeque<Plan> queue = new ArrayDeque<>();
+        ids.put(root, 0);
+        order.add(root);
+        queue.add(root);
+        int edges = 0;
+        while (!queue.isEmpty()) {
+            Plan plan = queue.poll();
+            edges += plan.children.length;
+            for (Plan child : plan.children) {
+                if (ids.containsKey(child)) continue;
+                if (child.children.length == 0 && leafIds[child.guess] != NONE) {
+                    ids.put(child, leafIds[child.guess]);
+                    continue;
+                }
+                ids.put(child, order.size());
+                if (child.children.length == 0) leafIds[child.guess] = order.size();
+                order.add(child);
+                queue.add(child);
+            }
+        }
+        int[] guesses = new int[order.size()];
+        int[] firstEdge = new int[order.size() + 1];
+        short[] edgePatterns = new short[edges];
+        int[] edgeChildren = new int[edges];
+        int edge = 0;
+        for (int node = 0; node < guesses.length; node++) {
+            Plan plan = order.get(node);
+            guesses[node] = rows[plan.guess];
+            firstEdge[node] = edge;
+            for (int i = 0; i < plan.children.length; i++, edge++) {
+                edgePatterns[edge] = plan.patterns[i];
+                edgeChildren[edge] = ids.get(plan.children[i]);
+            }
+        }
+        firstEdge[guesses.length] = edge;
+        return new DecisionTree(length, checksum, rows.length, root.total, root.worst,
+                guesses, firstEdge, edgePatterns, edgeChildren);
+    }
+
+    // The best way found to solve one set of candidates, starting with guess (a row number)
+    private static final class Plan {
+        final int guess;
+        final short[] patterns; // ascending, one per child
+        final Plan[] children;
+        final long total;       // guesses summed over the candidates, this one included
+        final int worst;        // most guesses any candidate needs
+
+        Plan(int guess, short[] patterns, Plan[] children, long total, int worst) {
+            this.guess = guess;
+            this.patterns = patterns;
+            this.children = children;
+            this.total = total;
+            this.worst = worst;
+        }
+
+        boolean betterThan(Plan other) {
+            return other == null || total < other.total || (total == other.total && worst < other.worst);
+        }
+    }
+
+    // A sorted candidate set as a map key
+    private static final class Key {
+        final int[] rows;
+        final int hash;
+
+        Key(int[] rows) {
+            this.rows = rows;
+            this.hash = Arrays.hashCode(rows);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).hash == hash && Arrays.equals(((Key) o).rows, rows);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Builder {
+        // Upper bound on guess x candidate scorings when ranking one node, as in NumberleSolver
+        private static final long SCORING_BUDGET = 8_000_000L;
+        // Larger nodes hardly ever split into single candidates, so they skip the search for one
+        private static final int PERFECT_SPLIT_LIMIT = 128;
+        // Smaller nodes are solved on the current thread, forking them costs more than it saves
+        private static final int FORK_THRESHOLD = 32;
+
+        private final int[] rows;
+        private final int beam;
+        private final int patternCount;
+        private final Map<Key, Plan> memo = new ConcurrentHashMap<>();
+        private final Plan[] leaves;
+        // Per-thread pattern counts and scores, ranking a node scores thousands of guesses
+        private final ThreadLocal<int[]> counts;
+        private final ThreadLocal<short[]> scored;
+
+        Builder(int[] rows, int length, int beam) {
+            this.rows = rows;
+            this.beam = beam;
+            this.patternCount = FeedbackEngine.patternCount(length);
+            this.leaves = new Plan[rows.length];
+            this.counts = ThreadLocal.withInitial(() -> new int[patternCount]);
+            this.scored = ThreadLocal.withInitial(() -> new short[rows.length]);
+        }
+
+        final class SolveTask extends RecursiveTask<Plan> {
+            private static final long serialVersionUID = 1L;
+
+            private final int[] candidates;
+
+            SolveTask(int[] candidates) {
+                this.candidates = candidates;
+            }
+
+            @Override
+            protected Plan compute() {
+                return solve(candidates);
+            }
+        }
+
+        // candidates are ascending row numbers
+        Plan solve(int[] candidates) {
+            int n = candidates.length;
+            if (n == 1) return leaf(candidates[0]);
+            if (n == 2) {
+                // Guess one, the other is known after it
+                int pattern = FeedbackEngine.score(rows[candidates[0]], rows[candidates[1]]);
+                return new Plan(candidates[0], new short[]{(short) pattern}, new Plan[]{leaf(candidates[1])}, 3, 2);
+            }
+            Key key = new Key(candidates);
+            Plan known = memo.get(key);
+            if (known != null) return known;
+
+            int[] codes = new int[n];
+            for (int i = 0; i < n; i++) {
+                codes[i] = rows[candidates[i]];
+            }
+            int[] ranked = rank(candidates, codes);
+            // Split the candidates for every guess of the beam, then solve all the groups together
+            int[][][] groups = new int[ranked.length][][];
+            short[][] patterns = new short[ranked.length][];
+            List<SolveTask> tasks = new ArrayList<>();
+            for (int g = 0; g < ranked.length; g++) {
+                partition(ranked[g], candidates, codes, g, groups, patterns);
+                for (int[] group : groups[g]) {
+                    tasks.add(new SolveTask(group));
+                }
+            }
+            if (n >= FORK_THRESHOLD) {
+                ForkJoinTask.invokeAll(tasks);
+            } else {
+                for (SolveTask task : tasks) {
+                    task.complete(solve(task.candidates));
+                }
+            }
+
+            Plan best = null;
+            int next = 0;
+            for (int g = 0; g < ranked.length; g++) {
+                Plan[] children = new Plan[groups[g].length];
+                long total = n;
+                int worst = 0;
+                for (int i = 0; i < children.length; i++) {
+                    children[i] = tasks.get(next++).join();
+                    total += children[i].total;
+                    worst = Math.max(worst, children[i].worst);
+                }
+                Plan plan = new Plan(ranked[g], patterns[g], children, total, worst + 1);
+                if (plan.betterThan(best)) best = plan;
+            }
+            memo.put(key, best);
+            return best;
+        }
+
+        private Plan leaf(int row) {
+            Plan leaf = leaves[row];
+            if (leaf == null) {
+                // Racing threads may each make one, flatten() stores a single node per guess anyway
+                leaf = new Plan(row, new short[0], new Plan[0], 1, 1);
+                leaves[row] = leaf;
+            }
+            return leaf;
+        }
+
+        // The beam: the guesses with the highest entropy over the candidates, candidates first on ties
+        private int[] rank(int[] candidates, int[] codes) {
+            int n = candidates.length;
+            // A candidate that tells all the others apart cannot be beaten (2n - 1 guesses), look for one first
+            if (n <= PERFECT_SPLIT_LIMIT) {
+                double perfect = Math.log(n);
+                for (int row : candidates) {
+                    if (entropy(rows[row], codes) == perfect) return new int[]{row};
+                }
+            }
+            boolean wholeCorpus = (long) rows.length * n <= SCORING_BUDGET;
+            int poolSize = wholeCorpus ? rows.length : (int) Math.min(n, Math.max(1, SCORING_BUDGET / n));
+            int stride = wholeCorpus ? 1 : n / poolSize;
+            double[] scores = new double[poolSize];
+            IntStream pool = IntStream.range(0, poolSize);
+            if ((long) poolSize * n > SCORING_BUDGET / 16) pool = pool.parallel();
+            pool.forEach(i -> {
+                int row = wholeCorpus ? i : candidates[i * stride];
+                scores[i] = entropy(rows[row], codes);
+            });
+
+            int width = Math.min(beam, poolSize);
+            int[] best = new int[width];
+            double[] bestScores = new double[width];
+            Arrays.fill(bestScores, -1);
+            for (int i = 0; i < poolSize; i++) {
+                int row = wholeCorpus ? i : candidates[i * stride];
+                if (scores[i] <= 0) continue; // tells nothing, would split into the same set
+                double score = scores[i] + (Arrays.binarySearch(candidates, row) >= 0 ? 1e-9 : 0);
+                int at = width;
+                while (at > 0 && score > bestScores[at - 1]) {
+                    at--;
+                }
+                if (at == width) continue;
+                System.arraycopy(best, at, best, at + 1, width - at - 1);
+                System.arraycopy(bestScores, at, bestScores, at + 1, width - at - 1);
+                best[at] = row;
+                bestScores[at] = score;
+            }
+            int found = 0;
+            while (found < width && bestScores[found] >= 0) {
+                found++;
+            }
+            // Guessing a candidate always splits it off, so there is a guess even if none ranked
+            return found == 0 ? new int[]{candidates[0]} : Arrays.copyOf(best, found);
+        }
+
+        private double entropy(int guess, int[] codes) {
+            int n = codes.length;
+            short[] patterns = scored.get();
+            int[] counts = this.counts.get();
+            FeedbackEngine.scoreAgainstAll(guess, codes, patterns);
+            for (int i = 0; i < n; i++) {
+                counts[patterns[i]]++;
+            }
+            // Sum c*log(c) over the patterns that occurred, clearing them for the next call
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                int pattern = patterns[i];
+                int c = counts[pattern];
+                if (c > 0) {
+                    sum += c * Math.log(c);
+                    counts[pattern] = 0;
+                }
+            }
+            return Math.log(n) - sum / n;
+        }
+
+        // Group the candidates by the pattern guess gives them, leaving out the guess itself
+        private void partition(int guess, int[] candidates, int[] codes, int g, int[][][] groups, short[][] patterns) {
+            int n = candidates.length;
+            short[] patternOf = new short[n];
+            FeedbackEngine.scoreAgainstAll(rows[guess], codes, patternOf);
+            int[] counts = new int[patternCount];
+            int distinct = 0;
+            for (short pattern : patternOf) {
+                if (pattern != FeedbackEngine.ALL_CORRECT && counts[pattern]++ == 0) distinct++;
+            }
+            short[] order = new short[distinct];
+            int[][] byPattern = new int[distinct][];
+            for (int pattern = 0, k = 0; k < distinct; pattern++) {
+                if (counts[pattern] == 0) continue;
+                order[k] = (short) pattern;
+                byPattern[k] = new int[counts[pattern]];
+                counts[pattern] = k++; // from now on the group index of the pattern
+            }
+            int[] filled = new int[distinct];
+            for (int i = 0; i < n; i++) {
+                if (patternOf[i] == FeedbackEngine.ALL_CORRECT) continue;
+                int k = counts[patternOf[i]];
+                byPattern[k][filled[k]++] = candidates[i];
+            }
+            groups[g] = byPattern;
+            patterns[g] = order;
+        }
+    }
+
+    // Write the tree through a temporary file, so a half-written file is never picked up
+    public void save(Path file) throws IOException {
+        int nodes = guesses.length;
+        int edges = edgeChildren.length;
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), FILE_NAME, ".tmp");
+        try {
+            try (RandomAccessFile raf = new RandomAccessFile(temp.toFile(), "rw");
+                 FileChannel channel = raf.getChannel()) {
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 * nodes + 4 * (nodes + 1) + 6 * edges);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(length).putInt(nodes).putInt(edges).putInt(targets)
+                        .putLong(checksum).putLong(totalGuesses).putInt(worstCase).putInt(0);
+                for (int guess : guesses) buffer.putInt(guess);
+                for (int edge : firstEdge) buffer.putInt(edge);
+                for (short pattern : edgePatterns) buffer.putShort(pattern);
+                for (int child : edgeChildren) buffer.putInt(child);
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static DecisionTree load(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r");
+             FileChannel channel = raf.getChannel()) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is not a decision tree");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read the whole file
+            }
+            buffer.flip();
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException(file + " is not a decision tree");
+            }
+            int length = buffer.getInt();
+            int nodes = buffer.getInt();
+            int edges = buffer.getInt();
+            int targets = buffer.getInt();
+            long checksum = buffer.getLong();
+            long totalGuesses = buffer.getLong();
+            int worstCase = buffer.getInt();
+            buffer.getInt();
+            if (nodes < 1 || edges < 0 || buffer.remaining() != 4L * nodes + 4L * (nodes + 1) + 6L * edges) {
+                throw new IOException(file + " is damaged");
+            }
+            int[] guesses = new int[nodes];
+            int[] firstEdge = new int[nodes + 1];
+            short[] edgePatterns = new short[edges];
+            int[] edgeChildren = new int[edges];
+            buffer.asIntBuffer().get(guesses);
+            buffer.position(buffer.position() + 4 * nodes);
+            buffer.asIntBuffer().get(firstEdge);
+            buffer.position(buffer.position() + 4 * (nodes + 1));
+            buffer.asShortBuffer().get(edgePatterns);
+            buffer.position(buffer.position() + 2 * edges);
+            buffer.asIntBuffer().get(edgeChildren);
+            for (int child : edgeChildren) {
+                if (child < 0 || child >= nodes) throw new IOException(file + " is damaged");
+            }
+            return new DecisionTree(length, checksum, targets, totalGuesses, worstCase,
+                    guesses, firstEdge, edgePatterns, edgeChildren);
+        }
+    }
+
+    // Bytes the saved tree takes
+    public long fileSize() {
+        return HEADER_SIZE + 4L * guesses.length + 4L * (guesses.length + 1) + 6L * edgeChildren.length;
+    }
+
+    // Usage: DecisionTree [corpus file] [output file] [beam width], defaults to the files in the working directory
+    public static void main(String[] args) throws IOException {
+        Path corpusFile = Paths.get(args.length > 0 ? args[0] : EquationCorpus.FILE_NAME);
+        Path output = Paths.get(args.length > 1 ? args[1] : FILE_NAME);
+        int beam = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BEAM;
+        EquationCorpus corpus = EquationCorpus.load(corpusFile);
+        int length = INumberleModel.EQUATION_LENGTH;
+        long start = System.nanoTime();
+        DecisionTree tree = build(corpus, length, beam);
+        tree.save(output);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        // Play every target through the tree, which also checks that each one is reached
+        int[] histogram = new int[tree.getWorstCase() + 1];
+        int missed = 0;
+        int[] rows = IntStream.of(corpus.packedRowsOfLength(length)).distinct().toArray();
+        for (int row : rows) {
+            int guesses = tree.guessesFor(PackedEquation.decode(row));
+            if (guesses < 0 || guesses >= histogram.length) {
+                missed++;
+            } else {
+                histogram[guesses]++;
+            }
+        }
+        StringBuilder report = new StringBuilder();
+        report.append("Built a decision tree for ").append(tree.getTargets()).append(" equations in ")
+                .append(millis).append(" ms (beam ").append(beam).append("): ").append(output).append('\n');
+        report.append("  nodes: ").append(tree.getNodes()).append(", file: ").append(tree.fileSize()).append(" bytes\n");
+        report.append("  root guess: ").append(tree.guessAt(ROOT)).append('\n');
+        report.append(String.format("  average guesses: %.4f%n", tree.getAverageGuesses()));
+        report.append("  worst case: ").append(tree.getWorstCase()).append(" guesses\n");
+        for (int guesses = 1; guesses < histogram.length; guesses++) {
+            report.append(String.format("  %2d guesses: %d%n", guesses, histogram[guesses]));
+        }
+        int overLimit = 0;
+        for (int guesses = INumberleModel.MAX_ATTEMPTS + 1; guesses < histogram.length; guesses++) {
+            overLimit += histogram[guesses];
+        }
+        report.append("  beyond ").append(INumberleModel.MAX_ATTEMPTS).append(" attempts: ").append(overLimit).append('\n');
+        if (missed > 0) report.append("  NOT REACHED: ").append(missed).append('\n');
+        System.err.print(report);
+    }
+}
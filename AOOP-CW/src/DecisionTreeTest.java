@@ -0,0 +1,85 @@
+// DecisionTree test.java
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecisionTreeTest {
+    @TempDir
+    Path directory;
+
+    // Every equation of length 5, a few hundred targets
+    private EquationCorpus corpus(List<String> equations) throws IOException {
+        // The generator calls back from several threads
+        new EquationGenerator(5, false).generate(equation -> {
+            synchronized (equations) {
+                equations.add(equation);
+            }
+        });
+        Path file = directory.resolve(EquationCorpus.FILE_NAME);
+        Files.write(file, equations, StandardCharsets.US_ASCII);
+        return EquationCorpus.load(file);
+    }
+
+    @Test
+    void testEveryTargetIsReached() throws IOException {
+        List<String> equations = new ArrayList<>();
+        EquationCorpus corpus = corpus(equations);
+        DecisionTree tree = DecisionTree.build(corpus, 5, 2);
+        assertEquals(equations.size(), tree.getTargets());
+        long total = 0;
+        int worst = 0;
+        for (String target : equations) {
+            int guesses = tree.guessesFor(target);
+            assertTrue(guesses >= 1, target + " is reached.");
+            total += guesses;
+            worst = Math.max(worst, guesses);
+        }
+        assertEquals(total, tree.getTotalGuesses(), "The report matches playing every target.");
+        assertEquals(worst, tree.getWorstCase());
+        assertEquals(-1, tree.guessesFor("1+1=3"), "Not an equation of the corpus.");
+
+        DecisionTree greedy = DecisionTree.build(corpus, 5, 1);
+        assertTrue(tree.getTotalGuesses() <= greedy.getTotalGuesses(), "A wider beam is never worse.");
+    }
+
+    @Test
+    void testFollowLeavesTheTreeOnOtherGuesses() throws IOException {
+        DecisionTree tree = DecisionTree.build(corpus(new ArrayList<>()), 5, 1);
+        String root = tree.guessAt(DecisionTree.ROOT);
+        String target = root.equals("1+1=2") ? "2+2=4" : "1+1=2";
+        int pattern = FeedbackEngine.score(root, target);
+        int node = tree.follow(DecisionTree.ROOT, root, pattern);
+        assertEquals(tree.next(DecisionTree.ROOT, pattern), node);
+        assertNotEquals(DecisionTree.NONE, node, "Every target's feedback has an edge.");
+        assertEquals(DecisionTree.NONE, tree.follow(node, "9-9=0".equals(tree.guessAt(node)) ? "1*1=1" : "9-9=0",
+                0), "A guess that is not the tree's leaves it.");
+        assertEquals(DecisionTree.NONE, tree.follow(DecisionTree.NONE, root, pattern));
+    }
+
+    @Test
+    void testSaveAndLoad() throws IOException {
+        List<String> equations = new ArrayList<>();
+        DecisionTree tree = DecisionTree.build(corpus(equations), 5, 1);
+        Path file = directory.resolve(DecisionTree.FILE_NAME);
+        tree.save(file);
+        assertEquals(tree.fileSize(), Files.size(file));
+        DecisionTree loaded = DecisionTree.load(file);
+        assertEquals(tree.getNodes(), loaded.getNodes());
+        assertEquals(tree.getTotalGuesses(), loaded.getTotalGuesses());
+        for (String target : equations) {
+            assertEquals(tree.guessesFor(target), loaded.guessesFor(target), target);
+        }
+
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> DecisionTree.load(file), "A damaged file is rejected.");
+    }
+}
@@ -0,0 +1,34 @@
+// EquationAlphabet.java
+
+/*
+ * Maps every symbol a player can type on the keyboard to a small integer code.
+ * Codes 0-9 are the digits, 10-14 are + - * / =, and 15 stands for anything else (e.g. brackets),
+ * so a symbol always fits in 4 bits and per-symbol counters fit in one long.
+ * */
+public final class EquationAlphabet {
+    public static final String SYMBOLS = "0123456789+-*/=";
+    public static final int SIZE = 16;
+    public static final int OTHER = 15;
+
+    private static final byte[] CODES = new byte[128];
+
+    static {
+        java.util.Arrays.fill(CODES, (byte) OTHER);
+        for (int i = 0; i < SYMBOLS.length(); i++) {
+            CODES[SYMBOLS.charAt(i)] = (byte) i;
+        }
+    }
+
+    private EquationAlphabet() {
+    }
+
+    // Code of the given character, OTHER if it is not on the keyboard
+    public static int indexOf(char c) {
+        return c < 128 ? CODES[c] : OTHER;
+    }
+
+    // Character for the given code, '?' for OTHER
+    public static char symbolAt(int code) {
+        return code < SYMBOLS.length() ? SYMBOLS.charAt(code) : '?';
+    }
+}
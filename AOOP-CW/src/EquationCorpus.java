@@ -0,0 +1,197 @@
+// EquationCorpus.java
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Immutable in-memory index over equations.txt.
+ * The file is read once, the first time any game asks for it, and shared by every model afterwards.
+ * Entries are kept as offsets into a single buffer instead of one String per line,
+ * and every entry that fits is also kept as a PackedEquation code in one int[].
+ * */
+public final class EquationCorpus {
+    public static final String FILE_NAME = "equations.txt";
+    // Files larger than this are memory-mapped instead of being copied onto the heap
+    private static final long MAP_THRESHOLD = 64L * 1024 * 1024;
+
+    private final ByteBuffer data;
+    private final int[] offsets;  // start of each entry
+    private final int[] lengths;  // length of each entry in bytes
+    private final int[] packed;   // PackedEquation code of each entry, INVALID when it does not fit
+    private final int size;
+    private final long checksum; // CRC32 of the file contents
+
+    // Holder idiom: the JVM guarantees the file is loaded lazily and exactly once
+    private static final class Holder {
+        static final EquationCorpus INSTANCE = load(Paths.get(System.getProperty("user.dir"), FILE_NAME));
+    }
+
+    private EquationCorpus(ByteBuffer data, int[] offsets, int[] lengths, int size) {
+        this.data = data;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.size = size;
+        this.packed = new int[size];
+        byte[] row = new byte[PackedEquation.MAX_LENGTH];
+        for (int i = 0; i < size; i++) {
+            packed[i] = lengths[i] > PackedEquation.MAX_LENGTH
+                    ? PackedEquation.INVALID : PackedEquation.encode(row, 0, copyTo(i, row, 0));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+        this.checksum = crc.getValue();
+    }
+
+    // The shared corpus loaded from equations.txt in the working directory
+    public static EquationCorpus getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // Load a corpus from the given file, an unreadable file gives an empty corpus
+    public static EquationCorpus load(Path file) {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r");
+             FileChannel channel = raf.getChannel()) {
+            long fileSize = channel.size();
+            ByteBuffer data;
+            if (fileSize > MAP_THRESHOLD) {
+                data = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            } else {
+                byte[] bytes = new byte[(int) fileSize];
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // keep reading until the whole file is in memory
+                }
+                data = ByteBuffer.wrap(bytes);
+            }
+            return index(data);
+        } catch (IOException e) {
+            System.err.println("Error reading from " + file + ": " + e.getMessage());
+            return new EquationCorpus(ByteBuffer.allocate(0), new int[0], new int[0], 0);
+        }
+    }
+
+    // Record the offset and length of every non-blank line
+    private static EquationCorpus index(ByteBuffer data) {
+        int limit = data.limit();
+        int[] offsets = new int[64];
+        int[] lengths = new int[64];
+        int count = 0;
+        int start = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i == limit || data.get(i) == '\n') {
+                int end = i;
+                // Trim surrounding whitespace and Windows line endings
+                while (end > start && data.get(end - 1) <= ' ') end--;
+                int begin = start;
+                while (begin < end && data.get(begin) <= ' ') begin++;
+                if (end > begin) {
+                    if (count == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, count * 2);
+                        lengths = Arrays.copyOf(lengths, count * 2);
+                    }
+                    offsets[count] = begin;
+                    lengths[count] = end - begin;
+                    count++;
+                }
+                start = i + 1;
+            }
+        }
+        return new EquationCorpus(data, Arrays.copyOf(offsets, count), Arrays.copyOf(lengths, count), count);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Decode the equation at the given position
+    public String get(int index) {
+        assert index >= 0 && index < size : "Corpus index out of range: " + index;
+        int offset = offsets[index];
+        int length = lengths[index];
+        if (data.hasArray()) {
+            return new String(data.array(), data.arrayOffset() + offset, length, StandardCharsets.US_ASCII);
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (data.get(offset + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    // Packed code of the equation at the given position, PackedEquation.INVALID if it cannot be packed
+    public int getPacked(int index) {
+        assert index >= 0 && index < size : "Corpus index out of range: " + index;
+        return packed[index];
+    }
+
+    // Pick an equation uniformly at random
+    public String randomEquation() {
+        return get(randomIndex());
+    }
+
+    // Position of an entry picked uniformly at random, for callers that want both get and getPacked
+    public int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+
+    // Copy the ASCII bytes of an entry into dest at the given offset, returns the entry length
+    public int copyTo(int index, byte[] dest, int destOffset) {
+        int offset = offsets[index];
+        int length = lengths[index];
+        for (int i = 0; i < length; i++) {
+            dest[destOffset + i] = data.get(offset + i);
+        }
+        return length;
+    }
+
+    // Every entry of the given length, back to back as ASCII bytes (row i starts at i * length)
+    public byte[] rowsOfLength(int length) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (lengths[i] == length) count++;
+        }
+        byte[] rows = new byte[count * length];
+        int row = 0;
+        for (int i = 0; i < size; i++) {
+            if (lengths[i] == length) {
+                copyTo(i, rows, row * length);
+                row++;
+            }
+        }
+        return rows;
+    }
+
+    // Packed codes of every entry of the given length, in the same row order as rowsOfLength
+    public int[] packedRowsOfLength(int length) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (lengths[i] == length) count++;
+        }
+        int[] rows = new int[count];
+        int row = 0;
+        for (int i = 0; i < size; i++) {
+            if (lengths[i] == length) rows[row++] = packed[i];
+        }
+        return rows;
+    }
+
+    public int lengthOf(int index) {
+        return lengths[index];
+    }
+
+    // Checksum of the file contents, changes whenever the corpus does
+    public long checksum() {
+        return checksum;
+    }
+}
@@ -0,0 +1,102 @@
+// EquationEvaluator.java
+
+/*
+ * Integer expression evaluator shared by the GUI controller and the CLI.
+ * Works on fixed-size primitive stacks and parses numbers in place, so a call does not allocate.
+ * An instance keeps its stacks between calls and is therefore not thread-safe: use one per thread.
+ * */
+public final class EquationEvaluator {
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final int[] values;
+    private final char[] ops;
+
+    public EquationEvaluator() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // capacity is the longest expression (in characters) this evaluator can handle
+    public EquationEvaluator(int capacity) {
+        assert capacity > 0 : "Capacity must be positive";
+        values = new int[capacity];
+        ops = new char[capacity];
+    }
+
+    public int evaluate(CharSequence expression) {
+        return evaluate(expression, 0, expression.length());
+    }
+
+    // Evaluate expression[start, end) with the usual precedence, left to right, using integer division
+    public int evaluate(CharSequence expression, int start, int end) {
+        if (end - start > values.length) {
+            throw new IllegalArgumentException("Expression is longer than " + values.length + " characters");
+        }
+        int valueTop = 0;
+        int opTop = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = expression.charAt(i);
+            if (c >= '0' && c <= '9') {
+                // It could be a multi-digit number
+                int number = 0;
+                while (i < end && (c = expression.charAt(i)) >= '0' && c <= '9') {
+                    number = number * 10 + (c - '0');
+                    i++;
+                }
+                values[valueTop++] = number;
+                i--; // Necessary because the for loop also increments i
+            } else if (c == '(') {
+                ops[opTop++] = c;
+            } else if (c == ')') {
+                // Resolve everything back to the matching bracket
+                while (opTop > 0 && ops[opTop - 1] != '(') {
+                    valueTop = reduce(ops[--opTop], valueTop);
+                }
+                if (opTop == 0) throw new IllegalArgumentException("Unbalanced parentheses");
+                opTop--; // Discard the '('
+            } else if (c == '+' || c == '-' || c == '*' || c == '/') {
+                // Compare the precedence of the current operator with the operator on top of the stack
+                while (opTop > 0 && hasPrecedence(c, ops[opTop - 1])) {
+                    valueTop = reduce(ops[--opTop], valueTop);
+                }
+                ops[opTop++] = c;
+            }
+        }
+        // The entire expression has been processed, apply the remaining operators to the remaining values
+        while (opTop > 0) {
+            char op = ops[--opTop];
+            if (op == '(') throw new IllegalArgumentException("Unbalanced parentheses");
+            valueTop = reduce(op, valueTop);
+        }
+        if (valueTop != 1) throw new IllegalArgumentException("Malformed expression");
+        return values[0];
+    }
+
+    // Pop two values, apply the operator and push the result, returns the new stack height
+    private int reduce(char op, int valueTop) {
+        if (valueTop < 2) throw new IllegalArgumentException("Malformed expression");
+        int b = values[valueTop - 1];
+        int a = values[valueTop - 2];
+        values[valueTop - 2] = applyOp(op, b, a);
+        return valueTop - 1;
+    }
+
+    // Determines if the precedence of op2 is greater than or equal to op1
+    private static boolean hasPrecedence(char op1, char op2) {
+        if (op2 == '(') return false;
+        return (op1 != '*' && op1 != '/') || (op2 != '+' && op2 != '-');
+    }
+
+    // Operate
+    static int applyOp(char op, int b, int a) {
+        switch (op) {
+            case '+': return a + b;
+            case '-': return a - b;
+            case '*': return a * b;
+            case '/':
+                if (b == 0) throw new UnsupportedOperationException("Cannot divide by zero");
+                return a / b;
+        }
+        return 0;
+    }
+}
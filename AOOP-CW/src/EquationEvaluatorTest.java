@@ -0,0 +1,35 @@
+// EquationEvaluator test.java
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationEvaluatorTest {
+    private final EquationEvaluator evaluator = new EquationEvaluator();
+
+    @Test
+    void testPrecedenceAndAssociativity() {
+        assertEquals(8, evaluator.evaluate("2+3*2"), "Multiplication should bind tighter than addition.");
+        assertEquals(4, evaluator.evaluate("8/4*2"), "Operators of equal precedence are applied left to right.");
+        assertEquals(-5, evaluator.evaluate("2-3-4"), "Subtraction is left associative.");
+        assertEquals(15, evaluator.evaluate("15"), "A single number evaluates to itself.");
+        assertEquals(2, evaluator.evaluate("7/3"), "Division truncates towards zero.");
+    }
+
+    @Test
+    void testParentheses() {
+        assertEquals(10, evaluator.evaluate("(2+3)*2"), "Brackets should override precedence.");
+        assertEquals(3, evaluator.evaluate("((3))"), "Nested brackets are allowed.");
+        assertThrows(IllegalArgumentException.class, () -> evaluator.evaluate("(2+3"),
+                "Unbalanced brackets should be rejected.");
+    }
+
+    @Test
+    void testRangeAndErrors() {
+        // Evaluate only the left side of an equation without splitting it
+        assertEquals(6, evaluator.evaluate("2*3+1=7", 0, 3));
+        assertThrows(UnsupportedOperationException.class, () -> evaluator.evaluate("1/0"),
+                "Dividing by zero should be reported.");
+        assertThrows(IllegalArgumentException.class, () -> evaluator.evaluate("1+"),
+                "A dangling operator is not a valid expression.");
+    }
+}
@@ -0,0 +1,348 @@
+// EquationGenerator.java
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/*
+ * Enumerates every legal equation of a given length over the digits and + - * / =.
+ * Legal means EquationValidator accepts it: one '=', operators only between numbers,
+ * no division by zero, and both sides equal under the game's integer arithmetic.
+ *
+ * For every split "left = right" the shorter side is listed once and sorted by value,
+ * the longer side is walked character by character on a fork/join pool and joined
+ * against that table by value. Results are streamed out in chunks, never collected.
+ * */
+public final class EquationGenerator {
+    private static final char[] OPERATORS = {'+', '-', '*', '/'};
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final int length;
+    private final boolean strict;
+    private final ExpressionTable[] tables;
+
+    // Receives finished chunks of newline separated equations, must be thread-safe
+    interface ChunkSink {
+        void accept(byte[] chunk, int length);
+    }
+
+    // strict also rejects numbers with leading zeros and divisions with a remainder,
+    // which is the style of the hand-written equations.txt
+    public EquationGenerator(int length, boolean strict) {
+        if (length < 3 || length > FeedbackEngine.MAX_LENGTH) {
+            throw new IllegalArgumentException("Equation length must be between 3 and " + FeedbackEngine.MAX_LENGTH);
+        }
+        this.length = length;
+        this.strict = strict;
+        this.tables = new ExpressionTable[length];
+    }
+
+    // Write every equation to the stream, one per line, and return how many were written
+    public long writeTo(OutputStream out) {
+        return generate((chunk, len) -> {
+            synchronized (out) {
+                try {
+                    out.write(chunk, 0, len);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+
+    // Hand every equation to the consumer, which may be called from several threads at once
+    public long generate(Consumer<String> consumer) {
+        return generate((chunk, len) -> {
+            int start = 0;
+            for (int i = 0; i < len; i++) {
+                if (chunk[i] == '\n') {
+                    consumer.accept(new String(chunk, start, i - start, StandardCharsets.US_ASCII));
+                    start = i + 1;
+                }
+            }
+        });
+    }
+
+    long generate(ChunkSink sink) {
+        LongAdder count = new LongAdder();
+        List<RecursiveAction> tasks = new ArrayList<>();
+        for (int left = 1; left <= length - 2; left++) {
+            int right = length - 1 - left;
+            // Only the shorter side is materialised, the longer one is streamed
+            boolean tableOnLeft = left <= right;
+            ExpressionTable table = table(tableOnLeft ? left : right);
+            int streamLength = tableOnLeft ? right : left;
+            if (table.size == 0) continue;
+            // Split the streamed side by its first two characters to give the pool enough work
+            if (streamLength < 2) {
+                tasks.add(new SplitTask(table, tableOnLeft, streamLength, -1, -1, sink, count));
+            } else {
+                for (int first = 0; first < 10; first++) {
+                    for (int second = 0; second < 14; second++) {
+                        tasks.add(new SplitTask(table, tableOnLeft, streamLength, first, second, sink, count));
+                    }
+                }
+            }
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        return count.sum();
+    }
+
+    private synchronized ExpressionTable table(int exprLength) {
+        if (tables[exprLength] == null) {
+            tables[exprLength] = new ExpressionTable(exprLength, strict);
+        }
+        return tables[exprLength];
+    }
+
+    // Character used at a walk position: digits first, then the operators
+    private static char symbol(int index) {
+        return index < 10 ? (char) ('0' + index) : OPERATORS[index - 10];
+    }
+
+    /*
+     * Walks all expressions of one length, evaluating them incrementally exactly like
+     * EquationEvaluator does (int arithmetic, * and / before + and -, left to right).
+     * Branches that divide by zero, or break the strict rules, are cut as soon as the number ends.
+     * */
+    private abstract static class ExpressionWalker {
+        final char[] expr;
+        private final boolean strict;
+        private final int fixed0;
+        private final int fixed1;
+
+        // fixed0 and fixed1 pin the first two characters to one symbol index, -1 leaves them free
+        ExpressionWalker(int exprLength, boolean strict, int fixed0, int fixed1) {
+            this.expr = new char[exprLength];
+            this.strict = strict;
+            this.fixed0 = fixed0;
+            this.fixed1 = fixed1;
+        }
+
+        // Called once for every complete expression, expr holds its characters
+        abstract void visit(int value);
+
+        void walk() {
+            walk(0, 0, true, 0, (char) 0, 0, 0);
+        }
+
+        // sum: value of the finished +/- terms, add: sign before the current term,
+        // term/mulOp: product chain waiting for the current number, number/digits: the number being typed
+        private void walk(int pos, int sum, boolean add, int term, char mulOp, int number, int digits) {
+            if (pos == expr.length) {
+                if (digits == 0 || rejects(term, mulOp, number)) return;
+                int t = applyTerm(term, mulOp, number);
+                visit(add ? sum + t : sum - t);
+                return;
+            }
+            int from = 0;
+            int to = digits == 0 ? 10 : 14; // an operator needs a number before it
+            if (pos == expr.length - 1) to = 10; // and a number after it
+            if (pos == 0 && fixed0 >= 0) { from = fixed0; to = Math.min(to, fixed0 + 1); }
+            if (pos == 1 && fixed1 >= 0) { from = fixed1; to = Math.min(to, fixed1 + 1); }
+            for (int s = from; s < to; s++) {
+                char c = symbol(s);
+                expr[pos] = c;
+                if (s < 10) {
+                    if (strict && digits == 1 && number == 0) continue; // leading zero
+                    walk(pos + 1, sum, add, term, mulOp, number * 10 + s, digits + 1);
+                } else {
+                    if (rejects(term, mulOp, number)) continue;
+                    int t = applyTerm(term, mulOp, number);
+                    if (c == '*' || c == '/') {
+                        walk(pos + 1, sum, add, t, c, 0, 0);
+                    } else {
+                        walk(pos + 1, add ? sum + t : sum - t, c == '+', 0, (char) 0, 0, 0);
+                    }
+                }
+            }
+        }
+
+        // Whether finishing the current number would divide by zero (or leave a remainder in strict mode)
+        private boolean rejects(int term, char mulOp, int number) {
+            return mulOp == '/' && (number == 0 || (strict && term % number != 0));
+        }
+
+        // Apply the pending * or / to the number that just ended
+        private static int applyTerm(int term, char mulOp, int number) {
+            if (mulOp == '*') return term * number;
+            if (mulOp == '/') return term / number;
+            return number;
+        }
+    }
+
+    // Every expression of one length, sorted by value so matches can be found by binary search
+    private static final class ExpressionTable {
+        final int exprLength;
+        int size;
+        int[] values = new int[256];
+        byte[] symbols;
+
+        ExpressionTable(int exprLength, boolean strict) {
+            this.exprLength = exprLength;
+            this.symbols = new byte[values.length * exprLength];
+            new ExpressionWalker(exprLength, strict, -1, -1) {
+                @Override
+                void visit(int value) {
+                    add(value, expr);
+                }
+            }.walk();
+            sort();
+        }
+
+        private void add(int value, char[] expr) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                symbols = Arrays.copyOf(symbols, size * 2 * exprLength);
+            }
+            values[size] = value;
+            for (int i = 0; i < exprLength; i++) {
+                symbols[size * exprLength + i] = (byte) expr[i];
+            }
+            size++;
+        }
+
+        // Sort by value, keeping each expression next to its value
+        private void sort() {
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = ((long) values[i] << 32) | i;
+            }
+            Arrays.sort(order);
+            int[] sortedValues = new int[size];
+            byte[] sortedSymbols = new byte[size * exprLength];
+            for (int i = 0; i < size; i++) {
+                int from = (int) order[i];
+                sortedValues[i] = values[from];
+                System.arraycopy(symbols, from * exprLength, sortedSymbols, i * exprLength, exprLength);
+            }
+            values = sortedValues;
+            symbols = sortedSymbols;
+        }
+
+        // First index holding the value, or -1
+        int find(int value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i < 0) return -1;
+            while (i > 0 && values[i - 1] == value) i--;
+            return i;
+        }
+    }
+
+    // Streams one side of one split, restricted to a two-character prefix, and joins it against the table
+    private final class SplitTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ExpressionTable table;
+        private final boolean tableOnLeft;
+        private final int streamLength;
+        private final int first;
+        private final int second;
+        private final ChunkSink sink;
+        private final LongAdder count;
+
+        SplitTask(ExpressionTable table, boolean tableOnLeft, int streamLength, int first, int second,
+                  ChunkSink sink, LongAdder count) {
+            this.table = table;
+            this.tableOnLeft = tableOnLeft;
+            this.streamLength = streamLength;
+            this.first = first;
+            this.second = second;
+            this.sink = sink;
+            this.count = count;
+        }
+
+        @Override
+        protected void compute() {
+            JoinWalker walker = new JoinWalker(this);
+            walker.walk();
+            walker.flush();
+            count.add(walker.found);
+        }
+    }
+
+    // Writes "table = streamed" (or the mirror) for every table entry with the streamed value
+    private final class JoinWalker extends ExpressionWalker {
+        private final SplitTask task;
+        private final ExpressionTable table;
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+        private int used;
+        private long found;
+
+        JoinWalker(SplitTask task) {
+            super(task.streamLength, strict, task.first, task.second);
+            this.task = task;
+            this.table = task.table;
+        }
+
+        @Override
+        void visit(int value) {
+            int at = table.find(value);
+            if (at < 0) return;
+            for (; at < table.size && table.values[at] == value; at++) {
+                if (used + length + 1 > chunk.length) flush();
+                if (task.tableOnLeft) {
+                    copyTable(at);
+                    chunk[used++] = '=';
+                    copyExpr();
+                } else {
+                    copyExpr();
+                    chunk[used++] = '=';
+                    copyTable(at);
+                }
+                chunk[used++] = '\n';
+                found++;
+            }
+        }
+
+        private void copyExpr() {
+            for (char c : expr) {
+                chunk[used++] = (byte) c;
+            }
+        }
+
+        private void copyTable(int index) {
+            System.arraycopy(table.symbols, index * table.exprLength, chunk, used, table.exprLength);
+            used += table.exprLength;
+        }
+
+        void flush() {
+            if (used > 0) task.sink.accept(chunk, used);
+            used = 0;
+        }
+    }
+
+    // Usage: EquationGenerator <length> [output file, '-' for stdout] [--strict]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: EquationGenerator <length> [output file|-] [--strict]");
+            System.exit(1);
+        }
+        int length = Integer.parseInt(args[0]);
+        String output = args.length > 1 ? args[1] : "-";
+        boolean strict = Arrays.asList(args).contains("--strict");
+
+        long start = System.nanoTime();
+        long count;
+        try (OutputStream out = new BufferedOutputStream(
+                "-".equals(output) ? System.out : new FileOutputStream(output), CHUNK_SIZE)) {
+            count = new EquationGenerator(length, strict).writeTo(out);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.err.println("Generated " + count + " equations of length " + length + " in " + millis + " ms");
+    }
+}
@@ -0,0 +1,71 @@
+// EquationGenerator test.java
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationGeneratorTest {
+    // The generator's alphabet, brackets are never generated
+    private static final char[] SYMBOLS = "0123456789+-*/=".toCharArray();
+
+    private static List<String> generate(int length, boolean strict) {
+        List<String> equations = new ArrayList<>();
+        // The generator calls back from several threads
+        long count = new EquationGenerator(length, strict).generate(equation -> {
+            synchronized (equations) {
+                equations.add(equation);
+            }
+        });
+        assertEquals(count, equations.size(), "The returned count matches what was handed out.");
+        return equations;
+    }
+
+    @Test
+    void testMatchesTheValidator() {
+        List<String> generated = generate(5, false);
+        assertEquals(generated.size(), new HashSet<>(generated).size(), "No equation is generated twice.");
+
+        // Every string of length 5 over the alphabet, 15^5 of them
+        EquationValidator validator = new EquationValidator(5);
+        List<String> expected = new ArrayList<>();
+        char[] chars = new char[5];
+        int[] digits = new int[5];
+        for (int n = 0; n < 759_375; n++) {
+            for (int i = 0; i < 5; i++) {
+                chars[i] = SYMBOLS[digits[i]];
+            }
+            String candidate = new String(chars);
+            if (validator.validate(candidate).isValid()) expected.add(candidate);
+            for (int i = 4; i >= 0 && ++digits[i] == SYMBOLS.length; i--) {
+                digits[i] = 0;
+            }
+        }
+
+        Collections.sort(expected);
+        Collections.sort(generated);
+        assertEquals(604, expected.size());
+        assertEquals(expected, generated);
+    }
+
+    @Test
+    void testStrictIsASubset() {
+        List<String> strict = generate(6, true);
+        List<String> all = generate(6, false);
+        assertEquals(strict.size(), new HashSet<>(strict).size());
+        assertTrue(strict.size() < all.size());
+        assertTrue(new HashSet<>(all).containsAll(strict));
+        // Legal, so the non-strict list has them, but not in the style of equations.txt
+        for (String loose : new String[]{"01+1=2", "1+1=02", "17/2=8", "3=10/3"}) {
+            assertEquals(6, loose.length());
+            assertTrue(all.contains(loose), loose + " is a legal equation.");
+            assertFalse(strict.contains(loose), loose + " has a leading zero or a remainder.");
+        }
+        assertTrue(strict.contains("12/4=3"), "Exact divisions are kept.");
+        assertTrue(strict.contains("10*0=0"), "A lone 0 is not a leading zero.");
+    }
+}
@@ -0,0 +1,79 @@
+// EquationValidator.java
+
+/*
+ * Single-pass validator for guesses.
+ * One scan checks the alphabet, the equals sign and the placement of operators and brackets,
+ * then both sides are evaluated in place without splitting the string.
+ * Holds an EquationEvaluator, so an instance is not thread-safe.
+ * */
+public final class EquationValidator {
+    // What the previous character was, used to check what may follow it
+    private static final int START = 0;
+    private static final int DIGIT = 1;
+    private static final int OPERATOR = 2;
+    private static final int OPEN = 3;
+    private static final int CLOSE = 4;
+    private static final int EQUALS = 5;
+
+    private final int length;
+    private final EquationEvaluator evaluator;
+
+    public EquationValidator() {
+        this(INumberleModel.EQUATION_LENGTH);
+    }
+
+    // length is the exact number of characters a valid equation must have
+    public EquationValidator(int length) {
+        this.length = length;
+        this.evaluator = new EquationEvaluator(Math.max(length, 1));
+    }
+
+    public ValidationResult validate(CharSequence input) {
+        if (input == null || input.length() == 0) return ValidationResult.EMPTY;
+        if (input.length() != length) return ValidationResult.INVALID_LENGTH;
+
+        int previous = START;
+        int equalsAt = -1;
+        int depth = 0;
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (previous == CLOSE) return ValidationResult.MISPLACED_OPERATOR;
+                previous = DIGIT;
+            } else if (c == '+' || c == '-' || c == '*' || c == '/') {
+                if (previous != DIGIT && previous != CLOSE) return ValidationResult.MISPLACED_OPERATOR;
+                previous = OPERATOR;
+            } else if (c == '=') {
+                if (equalsAt >= 0) return ValidationResult.MULTIPLE_EQUALS;
+                if (previous == START) return ValidationResult.MISPLACED_EQUALS;
+                if (previous == OPERATOR) return ValidationResult.MISPLACED_OPERATOR;
+                if (previous == OPEN || depth != 0) return ValidationResult.MISPLACED_PARENTHESIS;
+                equalsAt = i;
+                previous = EQUALS;
+            } else if (c == '(') {
+                if (previous == DIGIT || previous == CLOSE) return ValidationResult.MISPLACED_PARENTHESIS;
+                depth++;
+                previous = OPEN;
+            } else if (c == ')') {
+                if ((previous != DIGIT && previous != CLOSE) || depth == 0) return ValidationResult.MISPLACED_PARENTHESIS;
+                depth--;
+                previous = CLOSE;
+            } else {
+                return ValidationResult.INVALID_CHARACTER;
+            }
+        }
+        if (equalsAt < 0) return ValidationResult.MISSING_EQUALS;
+        if (previous == EQUALS) return ValidationResult.MISPLACED_EQUALS;
+        if (previous == OPERATOR) return ValidationResult.MISPLACED_OPERATOR;
+        if (depth != 0) return ValidationResult.MISPLACED_PARENTHESIS;
+
+        // The structure is sound, so both sides can be evaluated without further checks
+        try {
+            int left = evaluator.evaluate(input, 0, equalsAt);
+            int right = evaluator.evaluate(input, equalsAt + 1, length);
+            return left == right ? ValidationResult.VALID : ValidationResult.NOT_EQUAL;
+        } catch (UnsupportedOperationException e) {
+            return ValidationResult.DIVISION_BY_ZERO;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+// EquationValidator test.java
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationValidatorTest {
+    private final EquationValidator validator = new EquationValidator();
+
+    @Test
+    void testValidEquations() {
+        assertEquals(ValidationResult.VALID, validator.validate("2*3+1=7"));
+        assertEquals(ValidationResult.VALID, validator.validate("7=4*2-1"), "The expression may be on the right.");
+        assertEquals(ValidationResult.VALID, validator.validate("(1+2)=3"), "Brackets are part of the alphabet.");
+    }
+
+    @Test
+    void testStructuralErrors() {
+        assertEquals(ValidationResult.EMPTY, validator.validate(""));
+        assertEquals(ValidationResult.INVALID_LENGTH, validator.validate("10*4=4"));
+        assertEquals(ValidationResult.INVALID_CHARACTER, validator.validate("10q4=40"));
+        assertEquals(ValidationResult.INVALID_CHARACTER, validator.validate("1.5+1=2"),
+                "Characters inside the old regex range such as '.' are not allowed.");
+        assertEquals(ValidationResult.MISSING_EQUALS, validator.validate("1234567"));
+        assertEquals(ValidationResult.MULTIPLE_EQUALS, validator.validate("1=1=1+0"));
+        assertEquals(ValidationResult.MISPLACED_EQUALS, validator.validate("=1+2+34"));
+        assertEquals(ValidationResult.MISPLACED_EQUALS, validator.validate("1+2+34="));
+        assertEquals(ValidationResult.MISPLACED_OPERATOR, validator.validate("1++2=33"));
+        assertEquals(ValidationResult.MISPLACED_OPERATOR, validator.validate("-1+2=11"));
+        assertEquals(ValidationResult.MISPLACED_PARENTHESIS, validator.validate("(1+2=3)"));
+    }
+
+    @Test
+    void testArithmeticErrors() {
+        assertEquals(ValidationResult.NOT_EQUAL, validator.validate("10*2=21"));
+        assertEquals(ValidationResult.DIVISION_BY_ZERO, validator.validate("1/0+1=1"));
+    }
+}
@@ -0,0 +1,260 @@
+// FeedbackEngine.java
+
+/*
+ * Wordle-style scoring of a guess against a target.
+ * Exact matches are found first, then the remaining target symbols are counted and handed out
+ * to the guess from left to right, so a later green can never be stolen by an earlier yellow.
+ * The whole result is packed into one base-3 int: the status of position i is digit i.
+ * Nothing is allocated per pair, so the methods are safe to call from any thread in tight loops.
+ * */
+public final class FeedbackEngine {
+    public static final int CORRECT = 0; // The characters and positions match correctly
+    public static final int PRESENT = 1; // The character exists, but in the wrong position
+    public static final int ABSENT = 2;  // The character does not exist
+    // Every position is CORRECT
+    public static final int ALL_CORRECT = 0;
+    // Symbol counters are 4 bits wide, so longer equations would overflow them
+    public static final int MAX_LENGTH = 15;
+    // WEIGHTS[m] is the sum of 3^i over the bits i of m, for the batch scorer's masks of up to 7 positions
+    private static final int[] WEIGHTS = new int[1 << 7];
+
+    static {
+        for (int m = 1; m < WEIGHTS.length; m++) {
+            WEIGHTS[m] = WEIGHTS[m & (m - 1)] + patternCount(Integer.numberOfTrailingZeros(m));
+        }
+    }
+
+    private FeedbackEngine() {
+    }
+
+    // Score the guess against the target and return the packed pattern
+    public static int score(CharSequence guess, CharSequence target) {
+        return score(guess, target, null);
+    }
+
+    // Same as score(guess, target), and also writes the status of each position into out when it is not null
+    public static int score(CharSequence guess, CharSequence target, int[] out) {
+        int length = guess.length();
+        assert length == target.length() : "Guess and target must have the same length";
+        assert length <= MAX_LENGTH : "Equation is too long to score";
+
+        // First pass: exact matches, and count every unmatched target symbol (4 bits per symbol)
+        int correctMask = 0;
+        long counts = 0;
+        for (int i = 0; i < length; i++) {
+            char t = target.charAt(i);
+            if (guess.charAt(i) == t) {
+                correctMask |= 1 << i;
+            } else {
+                int code = EquationAlphabet.indexOf(t);
+                if (code != EquationAlphabet.OTHER) counts += 1L << (code << 2);
+            }
+        }
+
+        // Second pass: the unmatched guess symbols take what is left of the counts
+        int pattern = 0;
+        int weight = 1;
+        for (int i = 0; i < length; i++) {
+            int status;
+            if ((correctMask & (1 << i)) != 0) {
+                status = CORRECT;
+            } else {
+                int shift = EquationAlphabet.indexOf(guess.charAt(i)) << 2;
+                if (shift != EquationAlphabet.OTHER << 2 && ((counts >>> shift) & 0xF) != 0) {
+                    counts -= 1L << shift;
+                    status = PRESENT;
+                } else {
+                    status = ABSENT;
+                }
+            }
+            if (out != null) out[i] = status;
+            pattern += status * weight;
+            weight *= 3;
+        }
+        return pattern;
+    }
+
+    // Score equations stored as ASCII bytes, e.g. rows of a corpus table, without decoding them
+    public static int score(byte[] guesses, int guessOffset, byte[] targets, int targetOffset, int length) {
+        assert length <= MAX_LENGTH : "Equation is too long to score";
+        int correctMask = 0;
+        long counts = 0;
+        for (int i = 0; i < length; i++) {
+            byte t = targets[targetOffset + i];
+            if (guesses[guessOffset + i] == t) {
+                correctMask |= 1 << i;
+            } else {
+                int code = EquationAlphabet.indexOf((char) t);
+                if (code != EquationAlphabet.OTHER) counts += 1L << (code << 2);
+            }
+        }
+        int pattern = 0;
+        int weight = 1;
+        for (int i = 0; i < length; i++) {
+            if ((correctMask & (1 << i)) == 0) {
+                int shift = EquationAlphabet.indexOf((char) guesses[guessOffset + i]) << 2;
+                if (shift != EquationAlphabet.OTHER << 2 && ((counts >>> shift) & 0xF) != 0) {
+                    counts -= 1L << shift;
+                    pattern += PRESENT * weight;
+                } else {
+                    pattern += ABSENT * weight;
+                }
+            }
+            weight *= 3;
+        }
+        return pattern;
+    }
+
+    // Score two PackedEquation codes of the same length without unpacking them
+    public static int score(int guess, int target) {
+        return score(guess, target, null);
+    }
+
+    // Same as score(guess, target), and also writes the status of each position into out when it is not null
+    public static int score(int guess, int target, int[] out) {
+        assert guess != PackedEquation.INVALID && target != PackedEquation.INVALID : "Equations must be packed";
+        int length = PackedEquation.length(guess);
+        assert length == PackedEquation.length(target) : "Guess and target must have the same length";
+        // A zero nibble in the xor is an exact match; packed codes never contain OTHER
+        int diff = guess ^ target;
+        int correctMask = 0;
+        long counts = 0;
+        for (int i = 0, shift = 0; i < length; i++, shift += 4) {
+            if (((diff >>> shift) & 0xF) == 0) {
+                correctMask |= 1 << i;
+            } else {
+                counts += 1L << (((target >>> shift) & 0xF) << 2);
+            }
+        }
+        int pattern = 0;
+        int weight = 1;
+        for (int i = 0, shift = 0; i < length; i++, shift += 4) {
+            int status;
+            if ((correctMask & (1 << i)) != 0) {
+                status = CORRECT;
+            } else {
+                int countShift = ((guess >>> shift) & 0xF) << 2;
+                if (((counts >>> countShift) & 0xF) != 0) {
+                    counts -= 1L << countShift;
+                    status = PRESENT;
+                } else {
+                    status = ABSENT;
+                }
+            }
+            if (out != null) out[i] = status;
+            pattern += status * weight;
+            weight *= 3;
+        }
+        return pattern;
+    }
+
+    // Score one packed guess against every packed target, out[i] is the pattern for targets[i]
+    public static void scoreAgainstAll(int guess, int[] targets, short[] out) {
+        scoreAgainstAll(guess, targets, 0, targets.length, out);
+    }
+
+    /*
+     * Batch scoring of targets[from, to) into out[from, to), for solvers and hint searches.
+     * Everything that depends only on the guess is worked out once, so each target costs a few
+     * SWAR steps on its nibbles: the exact matches are the zero nibbles of guess ^ target, and
+     * for each distinct guess symbol the leftmost unmatched positions holding it turn PRESENT,
+     * as many as the unmatched target has copies. Both masks then turn into the base-3 pattern
+     * with one table lookup each.
+     * */
+    public static void scoreAgainstAll(int guess, int[] targets, int from, int to, short[] out) {
+        assert guess != PackedEquation.INVALID : "Guess must be packed";
+        int length = PackedEquation.length(guess);
+        int high = 0x88888888 & ((1 << (length << 2)) - 1); // top bit of each nibble that holds a symbol
+        int low = high >>> 3;
+        int[] broadcasts = new int[length]; // each distinct guess symbol copied into every nibble
+        int[] positions = new int[length];  // top bits of the nibbles where the guess has that symbol
+        int distinct = 0;
+        for (int i = 0; i < length; i++) {
+            int code = PackedEquation.codeAt(guess, i);
+            int s = 0;
+            while (s < distinct && broadcasts[s] != code * low) s++;
+            if (s == distinct) broadcasts[distinct++] = code * low;
+            positions[s] |= 8 << (i << 2);
+        }
+        // Symbols the guess holds once come first: they only need to know whether any copy is left
+        int singles = 0;
+        for (int s = 0; s < distinct; s++) {
+            if (Integer.bitCount(positions[s]) == 1) {
+                int b = broadcasts[s], p = positions[s];
+                broadcasts[s] = broadcasts[singles];
+                positions[s] = positions[singles];
+                broadcasts[singles] = b;
+                positions[singles++] = p;
+            }
+        }
+        int allAbsent = ABSENT * WEIGHTS[compress(high)];
+        for (int t = from; t < to; t++) {
+            int target = targets[t];
+            assert PackedEquation.length(target) == length : "Guess and target must have the same length";
+            int correct = zeroNibbles(guess ^ target, high);
+            int unmatched = high & ~correct;
+            int present = 0;
+            for (int s = 0; s < singles; s++) {
+                int copies = zeroNibbles(target ^ broadcasts[s], high) & unmatched;
+                present |= positions[s] & unmatched & (-copies >> 31); // all ones when any copy is left
+            }
+            for (int s = singles; s < distinct; s++) {
+                int wanted = positions[s] & unmatched;
+                int available = Integer.bitCount(zeroNibbles(target ^ broadcasts[s], high) & unmatched);
+                // Copies run out from the right: later positions of the same symbol stay ABSENT
+                while (Integer.bitCount(wanted) > available) wanted &= ~Integer.highestOneBit(wanted);
+                present |= wanted;
+            }
+            out[t] = (short) (allAbsent - (ABSENT - CORRECT) * WEIGHTS[compress(correct)]
+                    - (ABSENT - PRESENT) * WEIGHTS[compress(present)]);
+        }
+    }
+
+    // Gather the top bit of each of the 7 nibbles into bits 0-6
+    private static int compress(int nibbleMask) {
+        int x = nibbleMask >>> 3;
+        x = (x | (x >>> 3)) & 0x03030303;
+        x = (x | (x >>> 6)) & 0x000F000F;
+        return (x | (x >>> 12)) & 0xFF;
+    }
+
+    // Top bit set in every nibble of x (within high) that is zero; the adds never carry between nibbles
+    private static int zeroNibbles(int x, int high) {
+        int low3 = (high >>> 3) * 7;
+        return ~(((x & low3) + low3) | x) & high;
+    }
+
+    // Pack per-position statuses, as returned by matchInput, into one pattern
+    public static int encode(int[] statuses) {
+        int pattern = 0;
+        for (int i = statuses.length - 1; i >= 0; i--) {
+            pattern = pattern * 3 + statuses[i];
+        }
+        return pattern;
+    }
+
+    // Status (CORRECT, PRESENT or ABSENT) of one position in a packed pattern
+    public static int statusAt(int pattern, int position) {
+        for (int i = 0; i < position; i++) {
+            pattern /= 3;
+        }
+        return pattern % 3;
+    }
+
+    // Unpack a pattern into the caller's buffer, one status per position
+    public static void decode(int pattern, int[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = pattern % 3;
+            pattern /= 3;
+        }
+    }
+
+    // Number of distinct patterns for equations of the given length (3^length)
+    public static int patternCount(int length) {
+        int count = 1;
+        for (int i = 0; i < length; i++) {
+            count *= 3;
+        }
+        return count;
+    }
+}
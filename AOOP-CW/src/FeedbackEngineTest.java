@@ -0,0 +1,50 @@
+// FeedbackEngine test.java
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedbackEngineTest {
+
+    @Test
+    void testExactMatch() {
+        assertEquals(FeedbackEngine.ALL_CORRECT, FeedbackEngine.score("10+5=15", "10+5=15"),
+                "A correct guess should score all positions as correct.");
+    }
+
+    @Test
+    void testRepeatedSymbolsPreferCorrectPosition() {
+        int[] statuses = new int[7];
+        // The only '1' in the target is matched in place, so the earlier '1' must not take it as a yellow
+        FeedbackEngine.score("1+1=1+1", "6-1=2+3", statuses);
+        assertArrayEquals(new int[]{2, 2, 0, 0, 2, 0, 2}, statuses);
+    }
+
+    @Test
+    void testRepeatedSymbolsLimitedByTargetCount() {
+        int[] statuses = new int[7];
+        // The target has two '2's out of place, so only the first two of the guess turn yellow
+        int pattern = FeedbackEngine.score("2*2*2=8", "12+2=14", statuses);
+        assertArrayEquals(new int[]{1, 2, 1, 2, 2, 1, 2}, statuses);
+        // The packed pattern decodes back to the same statuses
+        int[] decoded = new int[7];
+        FeedbackEngine.decode(pattern, decoded);
+        assertArrayEquals(statuses, decoded);
+        assertEquals(FeedbackEngine.PRESENT, FeedbackEngine.statusAt(pattern, 0));
+    }
+
+    @Test
+    void testScoreAgainstAllMatchesPerPairScore() {
+        EquationCorpus corpus = EquationCorpus.getInstance();
+        int[] targets = corpus.packedRowsOfLength(7);
+        assertTrue(targets.length > 0, "The corpus should have equations of length 7.");
+        short[] out = new short[targets.length];
+        for (String guess : new String[]{"1+1=1+1", "2*2*2=8", "9-3*2=3", "10+5=15"}) {
+            int packed = PackedEquation.encode(guess);
+            FeedbackEngine.scoreAgainstAll(packed, targets, out);
+            for (int i = 0; i < targets.length; i++) {
+                assertEquals(FeedbackEngine.score(packed, targets[i]), out[i],
+                        guess + " against " + PackedEquation.decode(targets[i]));
+            }
+        }
+    }
+}
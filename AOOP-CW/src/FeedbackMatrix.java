@@ -0,0 +1,200 @@
+// FeedbackMatrix.java
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.stream.IntStream;
+
+/*
+ * Precomputed feedback for every (guess, target) pair of the corpus, stored in a binary file
+ * and memory-mapped at runtime, so a lookup is one read from the page cache.
+ *
+ * File layout (big-endian):
+ *   int magic, int version, int length, int rows, long corpus checksum, long reserved
+ *   then rows * rows unsigned shorts, row = guess, column = target
+ * Rows are the corpus entries of the given length, in the order of EquationCorpus.rowsOfLength.
+ * The file grows with the square of the corpus, so it is only ever built on request (main) and
+ * corpora above MAX_ROWS are refused. A file whose header does not match the corpus is ignored
+ * until it is rebuilt.
+ * */
+public final class FeedbackMatrix {
+    public static final String FILE_NAME = "feedback-matrix.bin";
+    private static final int MAGIC = 0x4E424D58; // "NBMX"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    // A single mapping cannot exceed 2 GB, so the body is mapped in segments of whole rows
+    private static final long SEGMENT_LIMIT = 1L << 30;
+    // 16384 rows make a 512 MB file, past that hints are better off scoring guesses directly
+    public static final int MAX_ROWS = 16_384;
+
+    private final int length;
+    private final int rows;
+    private final int rowsPerSegment;
+    private final MappedByteBuffer[] segments;
+
+    private static final class Holder {
+        static final FeedbackMatrix INSTANCE = openOrNull(EquationCorpus.getInstance(),
+                Paths.get(System.getProperty("user.dir"), FILE_NAME));
+    }
+
+    private FeedbackMatrix(int length, int rows, int rowsPerSegment, MappedByteBuffer[] segments) {
+        this.length = length;
+        this.rows = rows;
+        this.rowsPerSegment = rowsPerSegment;
+        this.segments = segments;
+    }
+
+    // Matrix for the shared corpus next to equations.txt, or null when none was built for this corpus
+    public static FeedbackMatrix getShared() {
+        return Holder.INSTANCE;
+    }
+
+    private static FeedbackMatrix openOrNull(EquationCorpus corpus, Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            return open(corpus, INumberleModel.EQUATION_LENGTH, file);
+        } catch (IOException e) {
+            System.err.println("Feedback matrix unavailable, hints will score guesses directly: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Map the matrix file; one that is missing or was built from another corpus is an error, never rebuilt here
+    public static FeedbackMatrix open(EquationCorpus corpus, int length, Path file) throws IOException {
+        int rows = corpus.rowsOfLength(length).length / length;
+        if (!matches(file, corpus.checksum(), length, rows)) {
+            throw new IOException(file + " was not built for this corpus, rebuild it with FeedbackMatrix");
+        }
+        return map(file, length, rows);
+    }
+
+    // Whether the file exists and its header describes this corpus
+    private static boolean matches(Path file, long checksum, int length, int rows) throws IOException {
+        if (!Files.isRegularFile(file)) return false;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r");
+             FileChannel channel = raf.getChannel()) {
+            if (channel.size() != HEADER_SIZE + 2L * rows * rows) return false;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            header.flip();
+            return header.getInt() == MAGIC && header.getInt() == VERSION && header.getInt() == length
+                    && header.getInt() == rows && header.getLong() == checksum;
+        }
+    }
+
+    // Compute every row in parallel straight into a mapped temporary file, then move it into place
+    public static void build(EquationCorpus corpus, int length, Path file) throws IOException {
+        if (FeedbackEngine.patternCount(length) > 0xFFFF) {
+            throw new IllegalArgumentException("Patterns of length " + length + " do not fit in 16 bits");
+        }
+        byte[] symbols = corpus.rowsOfLength(length);
+        int rows = symbols.length / length;
+        if (rows > MAX_ROWS) {
+            throw new IllegalArgumentException("A matrix of " + rows + " rows would take "
+                    + (2L * rows * rows >> 20) + " MB, the limit is " + MAX_ROWS + " rows");
+        }
+        // Rows that all pack into ints are scored a whole row per call
+        int[] packed = corpus.packedRowsOfLength(length);
+        boolean packedRows = IntStream.of(packed).noneMatch(code -> code == PackedEquation.INVALID);
+        Path dir = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, FILE_NAME, ".tmp");
+        try {
+            try (RandomAccessFile raf = new RandomAccessFile(temp.toFile(), "rw");
+                 FileChannel channel = raf.getChannel()) {
+                raf.setLength(HEADER_SIZE + 2L * rows * rows);
+                int rowsPerSegment = rowsPerSegment(rows);
+                MappedByteBuffer[] segments = mapSegments(channel, FileChannel.MapMode.READ_WRITE, rows, rowsPerSegment);
+                IntStream.range(0, rows).parallel().forEach(guess -> {
+                    MappedByteBuffer segment = segments[guess / rowsPerSegment];
+                    int base = (guess % rowsPerSegment) * rows * 2;
+                    if (packedRows) {
+                        short[] row = new short[rows];
+                        FeedbackEngine.scoreAgainstAll(packed[guess], packed, row);
+                        for (int target = 0; target < rows; target++) {
+                            segment.putShort(base + target * 2, row[target]);
+                        }
+                    } else {
+                        for (int target = 0; target < rows; target++) {
+                            int pattern = FeedbackEngine.score(symbols, guess * length, symbols, target * length, length);
+                            segment.putChar(base + target * 2, (char) pattern);
+                        }
+                    }
+                });
+                for (MappedByteBuffer segment : segments) {
+                    segment.force();
+                }
+                // The header goes in last, so a half-written file never looks valid
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(length).putInt(rows).putLong(corpus.checksum()).putLong(0);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static FeedbackMatrix map(Path file, int length, int rows) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r");
+             FileChannel channel = raf.getChannel()) {
+            int rowsPerSegment = rowsPerSegment(rows);
+            // The mappings stay valid after the channel is closed
+            return new FeedbackMatrix(length, rows, rowsPerSegment,
+                    mapSegments(channel, FileChannel.MapMode.READ_ONLY, rows, rowsPerSegment));
+        }
+    }
+
+    private static int rowsPerSegment(int rows) {
+        long rowBytes = Math.max(2L * rows, 1);
+        return (int) Math.max(1, Math.min(rows, SEGMENT_LIMIT / rowBytes));
+    }
+
+    private static MappedByteBuffer[] mapSegments(FileChannel channel, FileChannel.MapMode mode,
+                                                  int rows, int rowsPerSegment) throws IOException {
+        int count = rows == 0 ? 0 : (rows + rowsPerSegment - 1) / rowsPerSegment;
+        MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        long rowBytes = 2L * rows;
+        for (int i = 0; i < count; i++) {
+            long firstRow = (long) i * rowsPerSegment;
+            long segmentRows = Math.min(rowsPerSegment, rows - firstRow);
+            segments[i] = channel.map(mode, HEADER_SIZE + firstRow * rowBytes, segmentRows * rowBytes);
+        }
+        return segments;
+    }
+
+    // Packed pattern for guessing row guess when the answer is row target
+    public int pattern(int guess, int target) {
+        return segments[guess / rowsPerSegment].getChar(((guess % rowsPerSegment) * rows + target) * 2);
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    // Usage: FeedbackMatrix [corpus file] [output file], defaults to the files in the working directory
+    public static void main(String[] args) throws IOException {
+        Path corpusFile = Paths.get(args.length > 0 ? args[0] : EquationCorpus.FILE_NAME);
+        Path output = Paths.get(args.length > 1 ? args[1] : FILE_NAME);
+        EquationCorpus corpus = EquationCorpus.load(corpusFile);
+        long start = System.nanoTime();
+        build(corpus, INumberleModel.EQUATION_LENGTH, output);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        int rows = corpus.rowsOfLength(INumberleModel.EQUATION_LENGTH).length / INumberleModel.EQUATION_LENGTH;
+        System.err.println("Built " + rows + " x " + rows + " feedback matrix in " + millis + " ms: " + output);
+    }
+}
@@ -0,0 +1,85 @@
+// FeedbackMatrix test.java
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedbackMatrixTest {
+    @TempDir
+    Path directory;
+
+    private EquationCorpus corpus(String name, List<String> equations) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, equations, StandardCharsets.US_ASCII);
+        return EquationCorpus.load(file);
+    }
+
+    private static List<String> equations(int length, boolean strict) {
+        List<String> equations = new ArrayList<>();
+        // The generator calls back from several threads
+        new EquationGenerator(length, strict).generate(equation -> {
+            synchronized (equations) {
+                equations.add(equation);
+            }
+        });
+        Collections.sort(equations);
+        return equations;
+    }
+
+    @Test
+    void testLookupMatchesScore() throws IOException {
+        List<String> equations = equations(5, false);
+        EquationCorpus corpus = corpus("equations.txt", equations);
+        Path file = directory.resolve(FeedbackMatrix.FILE_NAME);
+        FeedbackMatrix.build(corpus, 5, file);
+        FeedbackMatrix matrix = FeedbackMatrix.open(corpus, 5, file);
+        assertEquals(equations.size(), matrix.getRows());
+        for (int guess = 0; guess < equations.size(); guess++) {
+            for (int target = 0; target < equations.size(); target++) {
+                assertEquals(FeedbackEngine.score(equations.get(guess), equations.get(target)),
+                        matrix.pattern(guess, target), equations.get(guess) + " against " + equations.get(target));
+            }
+        }
+    }
+
+    @Test
+    void testStaleFileIsNotOpenedUntilRebuilt() throws IOException {
+        List<String> equations = equations(5, false);
+        Path file = directory.resolve(FeedbackMatrix.FILE_NAME);
+        assertThrows(IOException.class, () -> FeedbackMatrix.open(corpus("a.txt", equations), 5, file),
+                "A missing file is not built on open.");
+        assertFalse(Files.exists(file));
+
+        FeedbackMatrix.build(corpus("a.txt", equations), 5, file);
+        // Same rows in another order: same size, different checksum
+        List<String> reversed = new ArrayList<>(equations);
+        Collections.reverse(reversed);
+        EquationCorpus changed = corpus("b.txt", reversed);
+        assertThrows(IOException.class, () -> FeedbackMatrix.open(changed, 5, file),
+                "A file built from another corpus is refused.");
+
+        FeedbackMatrix.build(changed, 5, file);
+        FeedbackMatrix matrix = FeedbackMatrix.open(changed, 5, file);
+        assertEquals(FeedbackEngine.score(reversed.get(0), reversed.get(1)), matrix.pattern(0, 1),
+                "The rebuilt file follows the new row order.");
+    }
+
+    @Test
+    void testLargeCorpusIsRefused() throws IOException {
+        List<String> equations = equations(7, true);
+        assertTrue(equations.size() > FeedbackMatrix.MAX_ROWS);
+        Path file = directory.resolve(FeedbackMatrix.FILE_NAME);
+        EquationCorpus corpus = corpus("equations.txt", equations);
+        assertThrows(IllegalArgumentException.class, () -> FeedbackMatrix.build(corpus, 7, file));
+        assertFalse(Files.exists(file), "Nothing is written for a refused corpus.");
+    }
+}
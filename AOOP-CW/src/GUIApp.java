@@ -21,6 +21,8 @@ public class GUIApp {
 
     public static void createAndShowGUI() {
         INumberleModel model = new NumberleModel();
+        GameJournal journal = GameJournal.getShared();
+        if (journal != null) model.addListener(journal);
         NumberleController controller = new NumberleController(model);
         NumberleView view = new NumberleView(model, controller);
     }
@@ -0,0 +1,184 @@
+// GameBoard.java
+import javax.swing.JComponent;
+import javax.swing.Timer;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.util.Arrays;
+
+/*
+ * The grid of guesses, painted as a single component instead of one JLabel per tile.
+ * Fonts, colors and strokes are created once, only the tiles that changed are repainted,
+ * and a scored row can optionally flip its tiles over one after another.
+ * */
+public class GameBoard extends JComponent {
+    private static final long serialVersionUID = 1L;
+    public static final int UNSCORED = 3; // status of a tile that has no feedback yet
+    private static final int GAP = 5;
+    private static final int PADDING = 10;
+    private static final int FLIP_MILLIS = 250;   // time for one tile to turn over
+    private static final int FLIP_STAGGER = 80;   // delay between neighbouring tiles
+    private static final int FRAME_MILLIS = 16;
+
+    private static final Font TILE_FONT = new Font("Arial", Font.BOLD, 20);
+    private static final Stroke BORDER_STROKE = new BasicStroke(1f);
+    private static final Color BACKGROUND = Color.LIGHT_GRAY;
+    private static final Color BORDER = Color.BLACK;
+    // Indexed by FeedbackEngine status, UNSCORED last
+    private static final Color[] FILLS = {Color.GREEN, Color.ORANGE, Color.GRAY, Color.WHITE};
+
+    private final int rows;
+    private final int columns;
+    private final char[] symbols;   // row-major, ' ' for an empty tile
+    private final byte[] statuses;  // row-major, UNSCORED until the row is scored
+    private final Rectangle tile = new Rectangle();
+    private final Rectangle dirty = new Rectangle();
+    private final Timer flipTimer;
+    private boolean animated;
+    private int flippingRow = -1;
+    private long flipStart;
+
+    public GameBoard(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.symbols = new char[rows * columns];
+        this.statuses = new byte[rows * columns];
+        this.flipTimer = new Timer(FRAME_MILLIS, e -> stepFlip());
+        setOpaque(true);
+        setPreferredSize(new Dimension(2 * PADDING + columns * 56 + (columns - 1) * GAP,
+                2 * PADDING + rows * 30 + (rows - 1) * GAP));
+        clear();
+    }
+
+    // Whether scored rows flip their tiles over instead of changing color at once
+    public void setAnimated(boolean animated) {
+        this.animated = animated;
+    }
+
+    // Show a scored guess on a row, statuses as returned by NumberleModel.matchInput
+    public void setRow(int row, CharSequence guess, int[] rowStatuses) {
+        if (row < 0 || row >= rows) return;
+        finishFlip();
+        int base = row * columns;
+        for (int i = 0; i < columns; i++) {
+            symbols[base + i] = i < guess.length() ? guess.charAt(i) : ' ';
+            statuses[base + i] = (byte) (i < rowStatuses.length ? rowStatuses[i] : UNSCORED);
+        }
+        if (animated && isShowing()) {
+            flippingRow = row;
+            flipStart = System.nanoTime();
+            flipTimer.start();
+        }
+        repaintRow(row);
+    }
+
+    // Empty every tile, with a single repaint
+    public void clear() {
+        finishFlip();
+        Arrays.fill(symbols, ' ');
+        Arrays.fill(statuses, (byte) UNSCORED);
+        repaint();
+    }
+
+    public char symbolAt(int row, int column) {
+        return symbols[row * columns + column];
+    }
+
+    public int statusAt(int row, int column) {
+        return statuses[row * columns + column];
+    }
+
+    private void repaintRow(int row) {
+        tileBounds(row, 0, dirty);
+        tileBounds(row, columns - 1, tile);
+        dirty.add(tile.x + tile.width, tile.y + tile.height);
+        repaint(dirty.x, dirty.y, dirty.width + 1, dirty.height + 1);
+    }
+
+    private void stepFlip() {
+        if (flippingRow < 0) {
+            flipTimer.stop();
+            return;
+        }
+        if (elapsedMillis() >= FLIP_MILLIS + FLIP_STAGGER * (columns - 1)) {
+            finishFlip();
+        } else {
+            repaintRow(flippingRow);
+        }
+    }
+
+    // Stop any flip, and repaint its row so no tile is left half turned
+    private void finishFlip() {
+        int row = flippingRow;
+        flippingRow = -1;
+        flipTimer.stop();
+        if (row >= 0) repaintRow(row);
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - flipStart) / 1_000_000;
+    }
+
+    // Position of a tile for the current size of the component
+    private void tileBounds(int row, int column, Rectangle out) {
+        int width = (getWidth() - 2 * PADDING - (columns - 1) * GAP) / columns;
+        int height = (getHeight() - 2 * PADDING - (rows - 1) * GAP) / rows;
+        out.setBounds(PADDING + column * (width + GAP), PADDING + row * (height + GAP),
+                Math.max(width, 1), Math.max(height, 1));
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics;
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        g.setColor(BACKGROUND);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        g.setFont(TILE_FONT);
+        g.setStroke(BORDER_STROKE);
+        FontMetrics metrics = g.getFontMetrics();
+        long elapsed = flippingRow >= 0 ? elapsedMillis() : 0;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                tileBounds(row, column, tile);
+                // Only the tiles inside the dirty region are painted
+                if (!tile.intersects(clip)) continue;
+                paintTile(g, metrics, row, column, row == flippingRow ? elapsed - FLIP_STAGGER * column : -1);
+            }
+        }
+    }
+
+    // flipMillis is the time since this tile started flipping, or -1 when it is not flipping
+    private void paintTile(Graphics2D g, FontMetrics metrics, int row, int column, long flipMillis) {
+        int index = row * columns + column;
+        int status = statuses[index];
+        int height = tile.height;
+        int y = tile.y;
+        if (flipMillis >= 0 && flipMillis < FLIP_MILLIS) {
+            // The tile shrinks to a line showing its old face, then grows back showing the new one
+            double phase = Math.cos(Math.PI * flipMillis / FLIP_MILLIS);
+            height = Math.max(1, (int) (tile.height * Math.abs(phase)));
+            y = tile.y + (tile.height - height) / 2;
+            if (phase > 0) status = UNSCORED;
+        } else if (flipMillis < 0 && row == flippingRow) {
+            status = UNSCORED;
+        }
+        g.setColor(FILLS[status]);
+        g.fillRect(tile.x, y, tile.width, height);
+        g.setColor(BORDER);
+        g.drawRect(tile.x, y, tile.width, height);
+        if (symbols[index] != ' ' && height > metrics.getAscent() / 2) {
+            int textX = tile.x + (tile.width - metrics.charWidth(symbols[index])) / 2;
+            int textY = y + (height - metrics.getHeight()) / 2 + metrics.getAscent();
+            g.drawChars(symbols, index, 1, textX, textY);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+// GameEvent.java
+
+/*
+ * Something that happened in a game, published by the model to its GameEventBus.
+ * Events are immutable, so they can be handed to listeners on other threads.
+ * Every event names its game, so events of many games can be interleaved (e.g. in the journal).
+ * */
+public abstract class GameEvent {
+    private final long gameId;
+    private final long timestamp;
+    private final int remainingAttempts;
+
+    GameEvent(long gameId, long timestamp, int remainingAttempts) {
+        this.gameId = gameId;
+        this.timestamp = timestamp;
+        this.remainingAttempts = remainingAttempts;
+    }
+
+    public long getGameId() {
+        return gameId;
+    }
+
+    // Wall-clock time of the event, in milliseconds since the epoch
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    // Attempts left once this event happened
+    public int getRemainingAttempts() {
+        return remainingAttempts;
+    }
+
+    // A new game was set up, published by initialize() before any guess; GameStarted follows with the first guess
+    public static final class GameReset extends GameEvent {
+        GameReset(long gameId, long timestamp, int remainingAttempts) {
+            super(gameId, timestamp, remainingAttempts);
+        }
+    }
+
+    // A game with the target it is played with, published with the first guess and stamped with the setup time
+    public static final class GameStarted extends GameEvent {
+        private final String target;
+        private final String playerId;
+
+        GameStarted(long gameId, long timestamp, int remainingAttempts, String target, String playerId) {
+            super(gameId, timestamp, remainingAttempts);
+            this.target = target;
+            this.playerId = playerId;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public String getPlayerId() {
+            return playerId;
+        }
+    }
+
+    // A guess was accepted and scored
+    public static final class GuessScored extends GameEvent {
+        private final String guess;
+        private final int pattern;
+
+        GuessScored(long gameId, long timestamp, String guess, int pattern, int remainingAttempts) {
+            super(gameId, timestamp, remainingAttempts);
+            this.guess = guess;
+            this.pattern = pattern;
+        }
+
+        public String getGuess() {
+            return guess;
+        }
+
+        // Packed feedback, see FeedbackEngine
+        public int getPattern() {
+            return pattern;
+        }
+    }
+
+    // The last guess was the target
+    public static final class GameWon extends GameEvent {
+        private final int guesses;
+
+        GameWon(long gameId, long timestamp, int guesses, int remainingAttempts) {
+            super(gameId, timestamp, remainingAttempts);
+            this.guesses = guesses;
+        }
+
+        public int getGuesses() {
+            return guesses;
+        }
+    }
+
+    // The attempts ran out without finding the target
+    public static final class GameLost extends GameEvent {
+        private final String target;
+
+        GameLost(long gameId, long timestamp, String target) {
+            super(gameId, timestamp, 0);
+            this.target = target;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+    }
+}
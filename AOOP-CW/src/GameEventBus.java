@@ -0,0 +1,58 @@
+// GameEventBus.java
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Lock-free listener list: the listeners are an immutable array swapped with compare-and-set,
+ * so publishing is a volatile read and a loop, and never blocks or copies.
+ * Publishers should check hasListeners() before building an event, so nobody pays for
+ * events that no one is listening to.
+ * */
+public final class GameEventBus {
+    private static final GameEventListener[] NONE = new GameEventListener[0];
+
+    private final AtomicReference<GameEventListener[]> listeners = new AtomicReference<>(NONE);
+
+    public void subscribe(GameEventListener listener) {
+        assert listener != null : "Listener must not be null";
+        GameEventListener[] current;
+        GameEventListener[] next;
+        do {
+            current = listeners.get();
+            next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = listener;
+        } while (!listeners.compareAndSet(current, next));
+    }
+
+    // Remove the listener, returns false if it was not subscribed
+    public boolean unsubscribe(GameEventListener listener) {
+        GameEventListener[] current;
+        GameEventListener[] next;
+        do {
+            current = listeners.get();
+            int index = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == listener) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) return false;
+            next = current.length == 1 ? NONE : new GameEventListener[current.length - 1];
+            System.arraycopy(current, 0, next, 0, index);
+            System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+        } while (!listeners.compareAndSet(current, next));
+        return true;
+    }
+
+    public boolean hasListeners() {
+        return listeners.get().length != 0;
+    }
+
+    // Deliver the event to every listener on the calling thread, in subscription order
+    public void publish(GameEvent event) {
+        for (GameEventListener listener : listeners.get()) {
+            listener.onEvent(event);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+// GameEventBus test.java
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEventBusTest {
+    @Test
+    void testModelPublishesTypedEvents() {
+        NumberleModel model = new NumberleModel();
+        List<GameEvent> events = new ArrayList<>();
+        model.addListener(events::add);
+        model.initialize();
+        model.setTargetNumber("2+3*2=8");
+        model.processInput("4-1*3=1");
+        model.processInput("2+3*2=8");
+        assertEquals(5, events.size(), "Expected a reset, one start, two scored guesses and a win.");
+        assertTrue(events.get(0) instanceof GameEvent.GameReset, "initialize announces the new game at once.");
+        assertEquals(INumberleModel.MAX_ATTEMPTS, events.get(0).getRemainingAttempts());
+        events.remove(0);
+        // The start waits for the first guess, so it carries the target set after initialize
+        GameEvent.GameStarted start = (GameEvent.GameStarted) events.get(0);
+        assertEquals("2+3*2=8", start.getTarget());
+        assertEquals(INumberleModel.MAX_ATTEMPTS, start.getRemainingAttempts());
+        assertEquals(start.getGameId(), events.get(1).getGameId());
+        GameEvent.GuessScored scored = (GameEvent.GuessScored) events.get(1);
+        assertEquals("4-1*3=1", scored.getGuess());
+        assertEquals(FeedbackEngine.score("4-1*3=1", "2+3*2=8"), scored.getPattern());
+        assertEquals(INumberleModel.MAX_ATTEMPTS - 1, scored.getRemainingAttempts());
+        assertEquals(2, ((GameEvent.GameWon) events.get(3)).getGuesses());
+    }
+
+    @Test
+    void testLossIsPublishedAfterTheLastGuess() {
+        NumberleModel model = new NumberleModel();
+        model.initialize();
+        model.setTargetNumber("2+3*2=8");
+        List<GameEvent> events = new ArrayList<>();
+        model.addListener(events::add);
+        for (int i = 0; i < INumberleModel.MAX_ATTEMPTS; i++) {
+            model.processInput("4-1*3=1");
+        }
+        GameEvent last = events.get(events.size() - 1);
+        assertTrue(last instanceof GameEvent.GameLost, "The last event must be the loss.");
+        assertEquals("2+3*2=8", ((GameEvent.GameLost) last).getTarget());
+
+        // The attempts label follows the events, so the next game must reset it before any guess
+        model.startNewGame();
+        GameEvent reset = events.get(events.size() - 1);
+        assertTrue(reset instanceof GameEvent.GameReset);
+        assertEquals(model.getGameId(), reset.getGameId());
+        assertEquals(INumberleModel.MAX_ATTEMPTS, reset.getRemainingAttempts());
+    }
+
+    @Test
+    void testUnsubscribe() {
+        GameEventBus bus = new GameEventBus();
+        List<String> calls = new ArrayList<>();
+        GameEventListener first = e -> calls.add("first");
+        GameEventListener second = e -> calls.add("second");
+        assertFalse(bus.hasListeners());
+        bus.subscribe(first);
+        bus.subscribe(second);
+        bus.publish(new GameEvent.GameStarted(1, 0, INumberleModel.MAX_ATTEMPTS, "2+3*2=8", "test"));
+        assertTrue(bus.unsubscribe(first));
+        assertFalse(bus.unsubscribe(first), "A listener can only be removed once.");
+        bus.publish(new GameEvent.GameStarted(1, 0, INumberleModel.MAX_ATTEMPTS, "2+3*2=8", "test"));
+        assertEquals(3, calls.size());
+        assertEquals("second", calls.get(2), "Only the remaining listener is called.");
+    }
+}
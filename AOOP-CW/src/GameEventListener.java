@@ -0,0 +1,9 @@
+// GameEventListener.java
+
+/*
+ * Receives game events on the thread that published them.
+ * Listeners that update Swing components should be wrapped in a SwingEventCoalescer.
+ * */
+public interface GameEventListener {
+    void onEvent(GameEvent event);
+}
@@ -0,0 +1,67 @@
+// GameJfrEvents.java
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/*
+ * Custom JFR events for what GameMetrics records. GameMetrics only calls in here when the JVM has
+ * jdk.jfr (OpenJDK 8u262 and later), so on one without it this class is never loaded.
+ * An event costs nothing beyond shouldCommit() unless a recording enables it, for example
+ *   java -XX:StartFlightRecording=filename=numberle.jfr GUIApp
+ * */
+final class GameJfrEvents {
+    static final String OPERATION = "numberle.Operation";
+    static final String GAME_OUTCOME = "numberle.GameOutcome";
+
+    private GameJfrEvents() {
+    }
+
+    @Name(OPERATION)
+    @Label("Numberle Operation")
+    @Category("Numberle")
+    @Description("One validation, guess, match or new game, with its latency")
+    @StackTrace(false)
+    static final class OperationEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Result")
+        @Description("Validation result, only set for validations")
+        String result;
+
+        @Label("Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+    }
+
+    @Name(GAME_OUTCOME)
+    @Label("Numberle Game Outcome")
+    @Category("Numberle")
+    @Description("A game started, won or lost")
+    @StackTrace(false)
+    static final class GameOutcomeEvent extends Event {
+        @Label("Outcome")
+        String outcome;
+    }
+
+    // result is null for anything but a validation
+    static void operation(GameMetrics.Operation operation, ValidationResult result, long nanos) {
+        OperationEvent event = new OperationEvent();
+        if (!event.shouldCommit()) return;
+        event.operation = operation.name();
+        event.result = result == null ? null : result.name();
+        event.latency = nanos;
+        event.commit();
+    }
+
+    static void gameOutcome(String outcome) {
+        GameOutcomeEvent event = new GameOutcomeEvent();
+        if (!event.shouldCommit()) return;
+        event.outcome = outcome;
+        event.commit();
+    }
+}
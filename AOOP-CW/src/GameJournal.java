@@ -0,0 +1,500 @@
+// GameJournal.java
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/*
+ * Append-only binary journal of game events, so games survive the JVM.
+ *
+ * Listening never blocks: events go onto a bounded lock-free queue, and a single writer thread
+ * drains it, encodes whole batches into one buffer and writes each batch with one FileChannel call
+ * (group commit), then fsyncs according to the policy. When the queue is full, events are dropped
+ * and counted rather than slowing the game down.
+ *
+ * The journal is a directory of segment files journal-<index>.log, each starting with
+ * int magic, int version. A segment is never reopened for writing; a new one starts on every
+ * open and whenever the current one grows past the segment size. Records (big-endian) are
+ *   int bodyLength, body, int crc32(body)
+ *   body = byte type, long gameId, long timestamp, payload
+ *   START: byte attempts, byte n, n ASCII target, byte n, n UTF-8 player
+ *   GUESS: byte attempts, byte n, n ASCII guess, int pattern
+ *   WON:   byte attempts, byte guesses
+ *   LOST:  byte n, n ASCII target
+ * A record torn by a crash fails its length or checksum, and replay skips the rest of that segment.
+ * */
+public final class GameJournal implements GameEventListener, AutoCloseable {
+    public static final String DIRECTORY = "journal";
+    private static final int MAGIC = 0x4E424A4C; // "NBJL"
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER = 8;
+    private static final byte START = 1, GUESS = 2, WON = 3, LOST = 4;
+    private static final int MIN_BODY = 17;
+    private static final int MAX_BODY = 1 + 16 + 1 + 1 + 255 + 1 + 255;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // When written batches are forced to disk
+    public enum FsyncPolicy {
+        NEVER,        // leave it to the operating system
+        EVERY_BATCH,  // after every write, nothing acknowledged is lost
+        INTERVAL      // at most once per interval
+    }
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final long segmentBytes;
+    private final int capacity;
+    private final ConcurrentLinkedQueue<GameEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile boolean waiting; // the writer is about to park, or parked, and must be woken for new events
+    private IOException failure;
+
+    // Writer thread state
+    private FileChannel channel;
+    private long segmentIndex;
+    private long segmentSize;
+    private long lastSync;
+    private boolean unsynced;
+
+    private static final class Holder {
+        static final GameJournal INSTANCE = openShared();
+    }
+
+    // Queued by flush(), the writer writes out everything before it and then releases it
+    private static final class FlushMarker extends GameEvent {
+        final CountDownLatch written = new CountDownLatch(1);
+
+        FlushMarker() {
+            super(0, 0, 0);
+        }
+    }
+
+    // A record boundary in the journal: the segment index and the byte offset within it
+    public static final class Position {
+        public static final Position START = new Position(0, 0);
+
+        private final long segment;
+        private final long offset;
+
+        public Position(long segment, long offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        public long getSegment() {
+            return segment;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+    }
+
+    public GameJournal(Path directory, FsyncPolicy fsyncPolicy, long fsyncInterval, TimeUnit unit,
+                       long segmentBytes, int capacity) throws IOException {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = unit.toNanos(fsyncInterval);
+        this.segmentBytes = segmentBytes;
+        this.capacity = capacity;
+        Files.createDirectories(directory);
+        List<Path> existing = segments(directory);
+        segmentIndex = existing.isEmpty() ? 0 : indexOf(existing.get(existing.size() - 1)) + 1;
+        openSegment();
+        writer = new Thread(this::runWriter, "numberle-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Journal with the default policy: fsync at most every 100 ms, 64 MB segments
+    public static GameJournal open(Path directory) throws IOException {
+        return new GameJournal(directory, FsyncPolicy.INTERVAL, 100, TimeUnit.MILLISECONDS, 64L << 20, 1 << 16);
+    }
+
+    // Journal in ./journal (or -Dnumberle.journal.dir), null when disabled with -Dnumberle.journal=false
+    public static GameJournal getShared() {
+        return Holder.INSTANCE;
+    }
+
+    private static GameJournal openShared() {
+        if ("false".equalsIgnoreCase(System.getProperty("numberle.journal"))) return null;
+        Path directory = Paths.get(System.getProperty("numberle.journal.dir",
+                Paths.get(System.getProperty("user.dir"), DIRECTORY).toString()));
+        try {
+            GameJournal journal = open(directory);
+            Runtime.getRuntime().addShutdownHook(new Thread(journal::close, "numberle-journal-close"));
+            return journal;
+        } catch (IOException e) {
+            System.err.println("Game journal unavailable, games will not be recorded: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void onEvent(GameEvent event) {
+        // Not recorded, the game's START record is written with its first guess
+        if (event instanceof GameEvent.GameReset) return;
+        if (closed) {
+            dropped.increment();
+            return;
+        }
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        queue.offer(event);
+        if (closed) {
+            // close() may have stopped the writer before this offer; whatever it did not take is counted as dropped
+            if (queue.remove(event)) {
+                queued.decrementAndGet();
+                dropped.increment();
+            }
+        } else if (waiting) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    // Wait until every event queued so far is written, not necessarily fsynced; false on timeout or after close
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        if (closed) return false;
+        FlushMarker marker = new FlushMarker();
+        queue.offer(marker);
+        // Same race as in onEvent, a marker the writer never sees would only time out
+        if (closed && queue.remove(marker)) return false;
+        LockSupport.unpark(writer);
+        return marker.written.await(timeout, unit);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Events that could not be queued because the journal was full or closed
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    // Events written to the journal so far
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    // WAITING while the writer sleeps until the next event, for tests
+    Thread.State getWriterState() {
+        return writer.getState();
+    }
+
+    // Write everything queued, force it to disk and stop the writer
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(writer);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (failure != null) System.err.println("Game journal stopped early: " + failure.getMessage());
+    }
+
+    private void runWriter() {
+        try {
+            lastSync = System.nanoTime();
+            while (true) {
+                boolean closing = closed; // read before draining, so nothing queued before close is missed
+                if (drain() > 0) {
+                    writeBuffer();
+                    if (fsyncPolicy == FsyncPolicy.EVERY_BATCH) sync();
+                } else if (closing) {
+                    break;
+                } else {
+                    park();
+                }
+                if (fsyncPolicy == FsyncPolicy.INTERVAL && unsynced && System.nanoTime() - lastSync >= fsyncIntervalNanos) {
+                    sync();
+                }
+            }
+            sync();
+        } catch (IOException e) {
+            failure = e;
+            closed = true;
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // nothing more can be written anyway
+            }
+        }
+    }
+
+    // Sleep until an event is queued or close() is called, and no longer than until the next fsync is due
+    private void park() {
+        waiting = true;
+        // Checked after announcing the wait, so an event queued meanwhile either is seen here or unparks us
+        if (queue.isEmpty() && !closed) {
+            if (fsyncPolicy == FsyncPolicy.INTERVAL && unsynced) {
+                LockSupport.parkNanos(this, lastSync + fsyncIntervalNanos - System.nanoTime());
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        waiting = false;
+    }
+
+    // Encode every queued event, writing out the buffer whenever it fills up
+    private int drain() throws IOException {
+        int count = 0;
+        GameEvent event;
+        while ((event = queue.poll()) != null) {
+            if (event instanceof FlushMarker) {
+                if (buffer.position() > 0) writeBuffer();
+                ((FlushMarker) event).written.countDown();
+                continue;
+            }
+            queued.decrementAndGet();
+            if (buffer.remaining() < MAX_BODY + 8) writeBuffer();
+            encode(event);
+            count++;
+        }
+        written.add(count);
+        return count;
+    }
+
+    private void encode(GameEvent event) {
+        int lengthAt = buffer.position();
+        buffer.putInt(0);
+        int bodyAt = buffer.position();
+        byte attempts = (byte) event.getRemainingAttempts();
+        if (event instanceof GameEvent.GuessScored) {
+            GameEvent.GuessScored guess = (GameEvent.GuessScored) event;
+            putHeader(GUESS, event);
+            buffer.put(attempts);
+            putAscii(guess.getGuess());
+            buffer.putInt(guess.getPattern());
+        } else if (event instanceof GameEvent.GameStarted) {
+            GameEvent.GameStarted start = (GameEvent.GameStarted) event;
+            putHeader(START, event);
+            buffer.put(attempts);
+            putAscii(start.getTarget());
+            byte[] player = start.getPlayerId().getBytes(StandardCharsets.UTF_8);
+            int length = Math.min(player.length, 255);
+            buffer.put((byte) length).put(player, 0, length);
+        } else if (event instanceof GameEvent.GameWon) {
+            putHeader(WON, event);
+            buffer.put(attempts);
+            buffer.put((byte) ((GameEvent.GameWon) event).getGuesses());
+        } else {
+            putHeader(LOST, event);
+            putAscii(((GameEvent.GameLost) event).getTarget());
+        }
+        int bodyLength = buffer.position() - bodyAt;
+        buffer.putInt(lengthAt, bodyLength);
+        crc.reset();
+        crc.update(buffer.array(), buffer.arrayOffset() + bodyAt, bodyLength);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    private void putHeader(byte type, GameEvent event) {
+        buffer.put(type).putLong(event.getGameId()).putLong(event.getTimestamp());
+    }
+
+    private void putAscii(String text) {
+        int length = Math.min(text.length(), 255);
+        buffer.put((byte) length);
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segmentSize += channel.write(buffer);
+        }
+        buffer.clear();
+        unsynced = true;
+        if (segmentSize >= segmentBytes) {
+            sync();
+            channel.close();
+            segmentIndex++;
+            openSegment();
+        }
+    }
+
+    private void sync() throws IOException {
+        if (unsynced && fsyncPolicy != FsyncPolicy.NEVER) channel.force(false);
+        unsynced = false;
+        lastSync = System.nanoTime();
+    }
+
+    private void openSegment() throws IOException {
+        Path file = directory.resolve(String.format("journal-%016x.log", segmentIndex));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        segmentSize = SEGMENT_HEADER;
+    }
+
+    // Segment files of a journal directory, oldest first
+    static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return segments;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "journal-*.log")) {
+            for (Path file : files) {
+                segments.add(file);
+            }
+        }
+        // Fixed-width hex indexes sort by name
+        Collections.sort(segments);
+        return segments;
+    }
+
+    static long indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()), 16);
+    }
+
+    // Feed every recorded event to the listener in the order it was written, returns the number of events
+    public static long replay(Path directory, GameEventListener listener) throws IOException {
+        long[] events = new long[1];
+        replay(directory, Position.START, event -> {
+            events[0]++;
+            listener.onEvent(event);
+        });
+        return events[0];
+    }
+
+    // Feed the events recorded after the position, returns the position to continue from next time
+    public static Position replay(Path directory, Position from, GameEventListener listener) throws IOException {
+        Position end = from;
+        for (Path segment : segments(directory)) {
+            long index = indexOf(segment);
+            if (index < from.segment) continue;
+            long offset = replaySegment(segment, index == from.segment ? from.offset : 0, listener);
+            end = new Position(index, offset);
+        }
+        return end;
+    }
+
+    // Replay one segment from a record boundary (0 for its start), returns the offset after the last good record
+    static long replaySegment(Path segment, long from, GameEventListener listener) throws IOException {
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size < SEGMENT_HEADER) return from;
+            MappedByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+                throw new IOException("Not a journal segment: " + segment);
+            }
+            data.position((int) Math.max(from, SEGMENT_HEADER));
+            CRC32 check = new CRC32();
+            byte[] body = new byte[MAX_BODY];
+            int end = data.position();
+            while (data.remaining() >= 4) {
+                int length = data.getInt(end);
+                if (length < MIN_BODY || length > MAX_BODY || data.remaining() < length + 8) break;
+                data.position(end + 4);
+                data.get(body, 0, length);
+                int expected = data.getInt();
+                check.reset();
+                check.update(body, 0, length);
+                // A torn or corrupt record ends the segment
+                if ((int) check.getValue() != expected) break;
+                listener.onEvent(decode(ByteBuffer.wrap(body, 0, length)));
+                end = data.position();
+            }
+            return end;
+        }
+    }
+
+    private static GameEvent decode(ByteBuffer body) throws IOException {
+        byte type = body.get();
+        long gameId = body.getLong();
+        long timestamp = body.getLong();
+        switch (type) {
+            case START: {
+                int attempts = body.get();
+                String target = getAscii(body);
+                byte[] player = new byte[body.get() & 0xFF];
+                body.get(player);
+                return new GameEvent.GameStarted(gameId, timestamp, attempts, target,
+                        new String(player, StandardCharsets.UTF_8));
+            }
+            case GUESS: {
+                int attempts = body.get();
+                String guess = getAscii(body);
+                return new GameEvent.GuessScored(gameId, timestamp, guess, body.getInt(), attempts);
+            }
+            case WON: {
+                int attempts = body.get();
+                return new GameEvent.GameWon(gameId, timestamp, body.get(), attempts);
+            }
+            case LOST:
+                return new GameEvent.GameLost(gameId, timestamp, getAscii(body));
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    private static String getAscii(ByteBuffer body) {
+        char[] chars = new char[body.get() & 0xFF];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) (body.get() & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    // Usage: GameJournal [directory], prints what the journal holds, including games left unfinished
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : DIRECTORY);
+        Map<Long, GameEvent.GameStarted> open = new HashMap<>();
+        long[] counts = new long[3]; // started, won, lost
+        long events = replay(directory, event -> {
+            if (event instanceof GameEvent.GameStarted) {
+                open.put(event.getGameId(), (GameEvent.GameStarted) event);
+                counts[0]++;
+            } else if (event instanceof GameEvent.GameWon) {
+                open.remove(event.getGameId());
+                counts[1]++;
+            } else if (event instanceof GameEvent.GameLost) {
+                open.remove(event.getGameId());
+                counts[2]++;
+            }
+        });
+        System.out.println(events + " events: " + counts[0] + " games started, " + counts[1] + " won, "
+                + counts[2] + " lost, " + open.size() + " unfinished");
+    }
+}
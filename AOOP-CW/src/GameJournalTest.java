@@ -0,0 +1,126 @@
+// GameJournal test.java
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameJournalTest {
+    @TempDir
+    Path directory;
+
+    private List<GameEvent> playGame() throws IOException {
+        List<GameEvent> published = new ArrayList<>();
+        try (GameJournal journal = GameJournal.open(directory)) {
+            NumberleModel model = new NumberleModel();
+            model.setPlayerId("tester");
+            model.addListener(published::add);
+            model.addListener(journal);
+            model.initialize();
+            model.setTargetNumber("2+3*2=8");
+            model.processInput("4-1*3=1");
+            model.processInput("2+3*2=8");
+        }
+        // The reset only tells views about the new game, it is not recorded
+        assertTrue(published.remove(0) instanceof GameEvent.GameReset);
+        return published;
+    }
+
+    @Test
+    void testReplayReturnsPublishedEvents() throws IOException {
+        List<GameEvent> published = playGame();
+        List<GameEvent> replayed = new ArrayList<>();
+        assertEquals(published.size(), GameJournal.replay(directory, replayed::add));
+        for (int i = 0; i < published.size(); i++) {
+            GameEvent expected = published.get(i);
+            GameEvent actual = replayed.get(i);
+            assertSame(expected.getClass(), actual.getClass(), "Event " + i + " changed type.");
+            assertEquals(expected.getGameId(), actual.getGameId());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            assertEquals(expected.getRemainingAttempts(), actual.getRemainingAttempts());
+        }
+        assertEquals(1, replayed.stream().filter(e -> e instanceof GameEvent.GameStarted).count(),
+                "One START record per game.");
+        GameEvent.GameStarted start = (GameEvent.GameStarted) replayed.get(0);
+        assertEquals("2+3*2=8", start.getTarget());
+        assertEquals("tester", start.getPlayerId());
+        GameEvent.GuessScored guess = (GameEvent.GuessScored) replayed.get(1);
+        assertEquals("4-1*3=1", guess.getGuess());
+        assertEquals(FeedbackEngine.score("4-1*3=1", "2+3*2=8"), guess.getPattern());
+        assertEquals(2, ((GameEvent.GameWon) replayed.get(3)).getGuesses());
+    }
+
+    @Test
+    void testTornRecordIsSkipped() throws IOException {
+        int events = playGame().size();
+        Path segment = GameJournal.segments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // Cut the last record short, as a crash during the write would
+            channel.truncate(channel.size() - 3);
+        }
+        assertEquals(events - 1, GameJournal.replay(directory, e -> { }), "Only the torn record is lost.");
+        // Reopening starts a new segment instead of appending after the torn record
+        playGame();
+        assertEquals(2, GameJournal.segments(directory).size());
+        assertEquals(2L * events - 1, GameJournal.replay(directory, e -> { }));
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, message);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void testWriterSleepsUntilAnEvent() throws IOException, InterruptedException {
+        try (GameJournal journal = new GameJournal(directory, GameJournal.FsyncPolicy.NEVER, 0, TimeUnit.MILLISECONDS,
+                64L << 20, 16)) {
+            await(() -> journal.getWriterState() == Thread.State.WAITING, "An idle writer parks without a timeout.");
+            journal.onEvent(new GameEvent.GuessScored(1, 0, "4-1*3=1", 0, 5));
+            await(() -> journal.getWrittenCount() == 1, "The event wakes the writer, no flush needed.");
+            await(() -> journal.getWriterState() == Thread.State.WAITING, "And it parks again.");
+        }
+    }
+
+    @Test
+    void testEveryEventIsWrittenOrDropped() throws IOException, InterruptedException {
+        GameJournal journal = new GameJournal(directory, GameJournal.FsyncPolicy.NEVER, 0, TimeUnit.MILLISECONDS,
+                64L << 20, 1 << 20);
+        int threads = 4;
+        int perThread = 20_000;
+        CountDownLatch started = new CountDownLatch(threads);
+        List<Thread> players = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long gameId = t;
+            Thread player = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < perThread; i++) {
+                    journal.onEvent(new GameEvent.GuessScored(gameId, i, "4-1*3=1", 0, 5));
+                }
+            });
+            player.start();
+            players.add(player);
+        }
+        started.await();
+        // Closed while the players are still publishing
+        journal.close();
+        for (Thread player : players) {
+            player.join();
+        }
+        assertEquals((long) threads * perThread, journal.getWrittenCount() + journal.getDroppedCount(),
+                "No event is lost without being counted.");
+        assertEquals(journal.getWrittenCount(), GameJournal.replay(directory, e -> { }));
+    }
+}
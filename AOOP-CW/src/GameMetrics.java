@@ -0,0 +1,222 @@
+// GameMetrics.java
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.beans.ConstructorProperties;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Counters and latency histograms for the game's hot paths, published over JMX, and the same
+ * measurements as custom JFR events (GameJfrEvents) on JVMs that have jdk.jfr.
+ *
+ * Metrics are on unless the JVM is started with -Dnumberle.metrics=false. ENABLED is a
+ * static final constant, so callers guard their timing with "if (GameMetrics.ENABLED)" and
+ * the JIT removes the whole block, including the System.nanoTime() calls, when it is off.
+ * */
+public final class GameMetrics implements GameMetricsMXBean {
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("numberle.metrics"));
+    public static final String OBJECT_NAME = "numberle:type=GameMetrics";
+
+    // Operations whose latency is recorded
+    public enum Operation {
+        VALIDATE, PROCESS, MATCH, INITIALIZE
+    }
+
+    private static final GameMetrics INSTANCE = new GameMetrics();
+    // GameJfrEvents is only loaded when this is true, a JVM without jdk.jfr never touches it
+    private static final boolean JFR = ENABLED && hasJfr();
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            } catch (JMException | SecurityException e) {
+                System.err.println("Game metrics are not published over JMX: " + e.getMessage());
+            }
+        }
+    }
+
+    private final LongAdder[] rejections = new LongAdder[ValidationResult.values().length];
+    private final LongAdder guessesAccepted = new LongAdder();
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder gamesWon = new LongAdder();
+    private final LongAdder gamesLost = new LongAdder();
+    private final ConcurrentLatencyHistogram[] latencies = new ConcurrentLatencyHistogram[Operation.values().length];
+
+    private GameMetrics() {
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = new LongAdder();
+        }
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new ConcurrentLatencyHistogram();
+        }
+    }
+
+    public static GameMetrics get() {
+        return INSTANCE;
+    }
+
+    private static boolean hasJfr() {
+        try {
+            Class.forName("jdk.jfr.Event", false, GameMetrics.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    // Outcome and duration of one validation, the result is counted as a rejection unless it is VALID
+    public static void recordValidation(ValidationResult result, long nanos) {
+        if (result.isValid()) {
+            INSTANCE.guessesAccepted.increment();
+        } else {
+            INSTANCE.rejections[result.ordinal()].increment();
+        }
+        INSTANCE.latencies[Operation.VALIDATE.ordinal()].record(nanos);
+        if (JFR) GameJfrEvents.operation(Operation.VALIDATE, result, nanos);
+    }
+
+    public static void recordLatency(Operation operation, long nanos) {
+        INSTANCE.latencies[operation.ordinal()].record(nanos);
+        if (JFR) GameJfrEvents.operation(operation, null, nanos);
+    }
+
+    public static void recordGameStarted() {
+        INSTANCE.gamesStarted.increment();
+        if (JFR) GameJfrEvents.gameOutcome("STARTED");
+    }
+
+    public static void recordGameWon() {
+        INSTANCE.gamesWon.increment();
+        if (JFR) GameJfrEvents.gameOutcome("WON");
+    }
+
+    public static void recordGameLost() {
+        INSTANCE.gamesLost.increment();
+        if (JFR) GameJfrEvents.gameOutcome("LOST");
+    }
+
+    public LatencyHistogram getLatency(Operation operation) {
+        return latencies[operation.ordinal()].snapshot();
+    }
+
+    public long getRejections(ValidationResult result) {
+        return rejections[result.ordinal()].sum();
+    }
+
+    @Override
+    public Map<String, Long> getRejectionCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (ValidationResult result : ValidationResult.values()) {
+            if (!result.isValid()) counts.put(result.name(), rejections[result.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public long getGuessesAccepted() {
+        return guessesAccepted.sum();
+    }
+
+    @Override
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+
+    @Override
+    public long getGamesWon() {
+        return gamesWon.sum();
+    }
+
+    @Override
+    public long getGamesLost() {
+        return gamesLost.sum();
+    }
+
+    @Override
+    public LatencySummary getValidateLatency() {
+        return new LatencySummary(getLatency(Operation.VALIDATE));
+    }
+
+    @Override
+    public LatencySummary getProcessLatency() {
+        return new LatencySummary(getLatency(Operation.PROCESS));
+    }
+
+    @Override
+    public LatencySummary getMatchLatency() {
+        return new LatencySummary(getLatency(Operation.MATCH));
+    }
+
+    @Override
+    public LatencySummary getInitializeLatency() {
+        return new LatencySummary(getLatency(Operation.INITIALIZE));
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder counter : rejections) {
+            counter.reset();
+        }
+        guessesAccepted.reset();
+        gamesStarted.reset();
+        gamesWon.reset();
+        gamesLost.reset();
+        for (ConcurrentLatencyHistogram histogram : latencies) {
+            histogram.reset();
+        }
+    }
+
+    /*
+     * Percentiles of one operation, shown by JMX clients as a composite value.
+     * */
+    public static final class LatencySummary {
+        private final long count;
+        private final double mean;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+        private final long max;
+
+        LatencySummary(LatencyHistogram histogram) {
+            this(histogram.getCount(), histogram.getMean(), histogram.percentile(50),
+                    histogram.percentile(99), histogram.percentile(99.9), histogram.getMax());
+        }
+
+        @ConstructorProperties({"count", "mean", "p50", "p99", "p999", "max"})
+        public LatencySummary(long count, double mean, long p50, long p99, long p999, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
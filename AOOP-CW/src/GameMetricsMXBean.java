@@ -0,0 +1,19 @@
+// GameMetricsMXBean.java
+import java.util.Map;
+
+/*
+ * Management interface of GameMetrics, registered as numberle:type=GameMetrics.
+ * Latencies are in nanoseconds.
+ * */
+public interface GameMetricsMXBean {
+    Map<String, Long> getRejectionCounts(); // by ValidationResult name
+    long getGuessesAccepted();
+    long getGamesStarted();
+    long getGamesWon();
+    long getGamesLost();
+    GameMetrics.LatencySummary getValidateLatency();
+    GameMetrics.LatencySummary getProcessLatency();
+    GameMetrics.LatencySummary getMatchLatency();
+    GameMetrics.LatencySummary getInitializeLatency();
+    void reset();
+}
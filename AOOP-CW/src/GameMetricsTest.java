@@ -0,0 +1,76 @@
+// GameMetrics test.java
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameMetricsTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEachResultMovesItsOwnCounter() {
+        assertTrue(GameMetrics.ENABLED, "Metrics are on by default.");
+        GameMetrics metrics = GameMetrics.get();
+        for (ValidationResult result : ValidationResult.values()) {
+            long[] before = new long[ValidationResult.values().length];
+            for (ValidationResult other : ValidationResult.values()) {
+                before[other.ordinal()] = metrics.getRejections(other);
+            }
+            long accepted = metrics.getGuessesAccepted();
+            long validations = metrics.getLatency(GameMetrics.Operation.VALIDATE).getCount();
+
+            GameMetrics.recordValidation(result, 1_000);
+
+            for (ValidationResult other : ValidationResult.values()) {
+                long expected = before[other.ordinal()] + (other == result && !result.isValid() ? 1 : 0);
+                assertEquals(expected, metrics.getRejections(other), other + " after recording " + result);
+            }
+            assertEquals(accepted + (result.isValid() ? 1 : 0), metrics.getGuessesAccepted(), result.name());
+            assertEquals(validations + 1, metrics.getLatency(GameMetrics.Operation.VALIDATE).getCount(),
+                    "Every validation is timed, accepted or not.");
+        }
+        assertTrue(metrics.getRejectionCounts().containsKey(ValidationResult.NOT_EQUAL.name()));
+        assertFalse(metrics.getRejectionCounts().containsKey(ValidationResult.VALID.name()), "VALID is not a rejection.");
+    }
+
+    @Test
+    void testLatencyGoesToItsOperation() {
+        GameMetrics metrics = GameMetrics.get();
+        long matches = metrics.getLatency(GameMetrics.Operation.MATCH).getCount();
+        long processes = metrics.getLatency(GameMetrics.Operation.PROCESS).getCount();
+        GameMetrics.recordLatency(GameMetrics.Operation.MATCH, 5_000_000);
+        assertEquals(matches + 1, metrics.getLatency(GameMetrics.Operation.MATCH).getCount());
+        assertEquals(processes, metrics.getLatency(GameMetrics.Operation.PROCESS).getCount());
+        assertTrue(metrics.getLatency(GameMetrics.Operation.MATCH).getMax() >= 5_000_000 * 0.9,
+                "The histogram keeps the value to within its precision.");
+    }
+
+    @Test
+    void testJfrEvents() throws IOException {
+        Path file = directory.resolve("metrics.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(GameJfrEvents.OPERATION);
+            recording.enable(GameJfrEvents.GAME_OUTCOME);
+            recording.start();
+            GameMetrics.recordValidation(ValidationResult.MISSING_EQUALS, 1_234);
+            GameMetrics.recordGameWon();
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals(GameJfrEvents.OPERATION)
+                && "VALIDATE".equals(e.getString("operation")) && "MISSING_EQUALS".equals(e.getString("result"))
+                && e.getLong("latency") == 1_234), "The validation is recorded with its result and latency.");
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals(GameJfrEvents.GAME_OUTCOME)
+                && "WON".equals(e.getString("outcome"))));
+    }
+}
@@ -0,0 +1,130 @@
+// GameSessionManager.java
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/*
+ * Holds the games of many concurrent players.
+ * Sessions live in a ConcurrentHashMap, so lookups never block each other, and every session
+ * guards its own model with its own lock. A background sweeper evicts sessions that have
+ * been idle for longer than the timeout.
+ * */
+public class GameSessionManager implements AutoCloseable {
+    private final ConcurrentHashMap<String, GameSession> sessions;
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    private final int maxSessions;
+    private final long idleTimeoutNanos;
+    private final ScheduledExecutorService sweeper;
+    private final GameJournal journal; // records every session's games, may be null
+    private final LongSupplier clock;  // System.nanoTime, tests pass their own
+
+    public GameSessionManager(int maxSessions, long idleTimeout, TimeUnit unit) {
+        this(maxSessions, idleTimeout, unit, null);
+    }
+
+    public GameSessionManager(int maxSessions, long idleTimeout, TimeUnit unit, GameJournal journal) {
+        this(maxSessions, idleTimeout, unit, journal, System::nanoTime);
+    }
+
+    GameSessionManager(int maxSessions, long idleTimeout, TimeUnit unit, GameJournal journal, LongSupplier clock) {
+        this.maxSessions = maxSessions;
+        this.journal = journal;
+        this.clock = clock;
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+        this.sessions = new ConcurrentHashMap<>(Math.min(maxSessions, 1 << 16), 0.75f,
+                Runtime.getRuntime().availableProcessors());
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "numberle-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, unit.toMillis(idleTimeout) / 4);
+        sweeper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // One player's game, all access goes through the session's monitor
+    public static final class GameSession {
+        private final String id;
+        private final NumberleModel model = new NumberleModel();
+        private volatile long lastAccess;
+
+        GameSession(String id, GameJournal journal, long now) {
+            this.id = id;
+            this.lastAccess = now;
+            model.setPlayerId(id);
+            if (journal != null) model.addListener(journal);
+            model.startNewGame();
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        // The model may only be used while holding the session's lock
+        public NumberleModel getModel() {
+            assert Thread.holdsLock(this) : "Session model used without holding its lock";
+            return model;
+        }
+
+        void touch(long now) {
+            lastAccess = now;
+        }
+    }
+
+    // Start a game for a new player, or return null when the server is full
+    public GameSession create() {
+        if (sessionCount.incrementAndGet() > maxSessions) {
+            sessionCount.decrementAndGet();
+            return null;
+        }
+        while (true) {
+            String id = Long.toHexString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE);
+            GameSession session = new GameSession(id, journal, clock.getAsLong());
+            if (sessions.putIfAbsent(id, session) == null) return session;
+        }
+    }
+
+    // The session with the given id, or null if it never existed or was evicted
+    public GameSession get(String id) {
+        GameSession session = sessions.get(id);
+        if (session != null) session.touch(clock.getAsLong());
+        return session;
+    }
+
+    public boolean remove(String id) {
+        if (sessions.remove(id) != null) {
+            sessionCount.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return sessionCount.get();
+    }
+
+    // Drop every session that has not been used within the idle timeout
+    void evictIdle() {
+        long now = clock.getAsLong();
+        Iterator<Map.Entry<String, GameSession>> it = sessions.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, GameSession> entry = it.next();
+            GameSession session = entry.getValue();
+            // remove(key, value) only succeeds if nobody replaced the session meanwhile
+            if (now - session.lastAccess > idleTimeoutNanos && sessions.remove(entry.getKey(), session)) {
+                sessionCount.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+}
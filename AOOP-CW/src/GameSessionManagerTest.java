@@ -0,0 +1,77 @@
+// GameSessionManager test.java
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSessionManagerTest {
+
+    @Test
+    void testIdleSessionsExpire() {
+        AtomicLong now = new AtomicLong();
+        try (GameSessionManager sessions = new GameSessionManager(10, 500, TimeUnit.MILLISECONDS, null, now::get)) {
+            GameSessionManager.GameSession idle = sessions.create();
+            GameSessionManager.GameSession used = sessions.create();
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+            assertSame(used, sessions.get(used.getId()), "A lookup counts as use.");
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+            sessions.evictIdle();
+            assertNull(sessions.get(idle.getId()), "Idle for longer than the timeout.");
+            assertSame(used, sessions.get(used.getId()), "Used within the timeout.");
+            assertEquals(1, sessions.size());
+
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+            sessions.evictIdle();
+            assertSame(used, sessions.get(used.getId()), "Exactly the timeout is not yet idle.");
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(501));
+            sessions.evictIdle();
+            assertEquals(0, sessions.size());
+        }
+    }
+
+    @Test
+    void testUnknownId() {
+        try (GameSessionManager sessions = new GameSessionManager(10, 1, TimeUnit.MINUTES)) {
+            assertNull(sessions.get("0"));
+            assertFalse(sessions.remove("0"));
+            GameSessionManager.GameSession session = sessions.create();
+            assertTrue(sessions.remove(session.getId()));
+            assertNull(sessions.get(session.getId()), "A removed game is gone.");
+            assertFalse(sessions.remove(session.getId()), "Only removed once.");
+            assertEquals(0, sessions.size());
+        }
+    }
+
+    @Test
+    void testFullServerRefusesNewGames() {
+        try (GameSessionManager sessions = new GameSessionManager(2, 1, TimeUnit.MINUTES)) {
+            GameSessionManager.GameSession first = sessions.create();
+            assertNotNull(sessions.create());
+            assertNull(sessions.create(), "Two games at most.");
+            assertEquals(2, sessions.size());
+            sessions.remove(first.getId());
+            assertNotNull(sessions.create(), "A removed game frees its slot.");
+        }
+    }
+
+    @Test
+    void testEverySessionHasItsOwnGame() {
+        try (GameSessionManager sessions = new GameSessionManager(10, 1, TimeUnit.MINUTES)) {
+            GameSessionManager.GameSession a = sessions.create();
+            GameSessionManager.GameSession b = sessions.create();
+            assertNotEquals(a.getId(), b.getId());
+            synchronized (a) {
+                a.getModel().setTargetNumber("2+3*2=8");
+                assertTrue(a.getModel().processInput("2+3*2=8"));
+                assertTrue(a.getModel().isGameOver());
+            }
+            synchronized (b) {
+                assertFalse(b.getModel().isGameOver(), "Another player's game is not touched.");
+                assertEquals(INumberleModel.MAX_ATTEMPTS, b.getModel().getRemainingAttempts());
+            }
+        }
+    }
+}
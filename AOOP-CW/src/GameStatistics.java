@@ -0,0 +1,379 @@
+// GameStatistics.java
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * Win rates, streaks and guess distributions aggregated from the game journal, globally,
+ * per player and per target equation.
+ *
+ * The journal is read once, as a stream: each event updates the aggregates and is forgotten,
+ * so memory grows with the number of players and targets, never with the length of history.
+ * The aggregates and the journal position are saved in a checkpoint next to the journal,
+ * so the next start only reads the records written since.
+ * */
+public final class GameStatistics implements GameEventListener {
+    public static final String CHECKPOINT_FILE = "stats.checkpoint";
+    private static final int MAGIC = 0x4E425354; // "NBST"
+    private static final int VERSION = 1;
+    private static final int MAX_OPEN_GAMES = 100_000; // games started but not finished yet, oldest forgotten first
+
+    private final Path journalDirectory;
+    private GameJournal.Position position = GameJournal.Position.START;
+    private final Summary global = new Summary();
+    private final Map<String, Summary> players = new HashMap<>();
+    private final Map<String, TargetSummary> targets = new HashMap<>();
+    private final LinkedHashMap<Long, OpenGame> openGames = new LinkedHashMap<Long, OpenGame>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, OpenGame> eldest) {
+            return size() > MAX_OPEN_GAMES;
+        }
+    };
+
+    // Totals for everyone or for one player
+    public static final class Summary {
+        private long played;
+        private long won;
+        private final long[] guessDistribution = new long[INumberleModel.MAX_ATTEMPTS + 1]; // [n] wins in n guesses
+        private int currentStreak;
+        private int maxStreak;
+
+        void record(boolean win, int guesses) {
+            played++;
+            if (win) {
+                won++;
+                guessDistribution[Math.min(guesses, INumberleModel.MAX_ATTEMPTS)]++;
+                currentStreak++;
+                if (currentStreak > maxStreak) maxStreak = currentStreak;
+            } else {
+                currentStreak = 0;
+            }
+        }
+
+        public long getPlayed() {
+            return played;
+        }
+
+        public long getWon() {
+            return won;
+        }
+
+        public double getWinRate() {
+            return played == 0 ? 0 : (double) won / played;
+        }
+
+        // Number of games won in exactly the given number of guesses
+        public long getWinsIn(int guesses) {
+            return guessDistribution[guesses];
+        }
+
+        public int getCurrentStreak() {
+            return currentStreak;
+        }
+
+        public int getMaxStreak() {
+            return maxStreak;
+        }
+
+        void clear() {
+            played = 0;
+            won = 0;
+            Arrays.fill(guessDistribution, 0);
+            currentStreak = 0;
+            maxStreak = 0;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeLong(played);
+            out.writeLong(won);
+            for (long count : guessDistribution) {
+                out.writeLong(count);
+            }
+            out.writeInt(currentStreak);
+            out.writeInt(maxStreak);
+        }
+
+        void read(DataInputStream in) throws IOException {
+            played = in.readLong();
+            won = in.readLong();
+            for (int i = 0; i < guessDistribution.length; i++) {
+                guessDistribution[i] = in.readLong();
+            }
+            currentStreak = in.readInt();
+            maxStreak = in.readInt();
+        }
+    }
+
+    // How one equation fared as a target
+    public static final class TargetSummary {
+        private final String target;
+        private long played;
+        private long won;
+        private long guesses; // losses count as one more than the attempts allowed
+
+        TargetSummary(String target) {
+            this.target = target;
+        }
+
+        void record(boolean win, int guessesUsed) {
+            played++;
+            if (win) won++;
+            guesses += win ? guessesUsed : INumberleModel.MAX_ATTEMPTS + 1;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public long getPlayed() {
+            return played;
+        }
+
+        public double getWinRate() {
+            return played == 0 ? 0 : (double) won / played;
+        }
+
+        public double getAverageGuesses() {
+            return played == 0 ? 0 : (double) guesses / played;
+        }
+    }
+
+    private static final class OpenGame {
+        final String player;
+        final String target;
+
+        OpenGame(String player, String target) {
+            this.player = player;
+            this.target = target;
+        }
+    }
+
+    private static final class Holder {
+        static final GameStatistics INSTANCE = loadShared();
+    }
+
+    public GameStatistics(Path journalDirectory) {
+        this.journalDirectory = journalDirectory;
+    }
+
+    // Statistics over the shared journal, null when the journal is turned off
+    public static GameStatistics getShared() {
+        return Holder.INSTANCE;
+    }
+
+    private static GameStatistics loadShared() {
+        GameJournal journal = GameJournal.getShared();
+        if (journal == null) return null;
+        try {
+            return load(journal.getDirectory());
+        } catch (IOException e) {
+            System.err.println("Statistics unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Bring the shared statistics up to date with the games just played, null if there are none
+    public static GameStatistics refreshShared() {
+        GameStatistics statistics = getShared();
+        if (statistics == null) return null;
+        try {
+            // The journal writes in the background, so wait for the events already queued
+            GameJournal.getShared().flush(1, java.util.concurrent.TimeUnit.SECONDS);
+            statistics.catchUp();
+        } catch (IOException e) {
+            System.err.println("Statistics not updated: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return statistics;
+    }
+
+    // Statistics for the journal, resumed from its checkpoint and brought up to date
+    public static GameStatistics load(Path journalDirectory) throws IOException {
+        GameStatistics statistics = new GameStatistics(journalDirectory);
+        statistics.readCheckpoint();
+        statistics.catchUp();
+        return statistics;
+    }
+
+    // Read the journal records written since the last call and save a checkpoint if there were any
+    public synchronized void catchUp() throws IOException {
+        GameJournal.Position from = position;
+        position = GameJournal.replay(journalDirectory, from, this);
+        if (position.getSegment() != from.getSegment() || position.getOffset() != from.getOffset()) {
+            writeCheckpoint();
+        }
+    }
+
+    @Override
+    public synchronized void onEvent(GameEvent event) {
+        if (event instanceof GameEvent.GameStarted) {
+            GameEvent.GameStarted start = (GameEvent.GameStarted) event;
+            openGames.put(event.getGameId(), new OpenGame(start.getPlayerId(), start.getTarget()));
+        } else if (event instanceof GameEvent.GameWon) {
+            finish(event.getGameId(), true, ((GameEvent.GameWon) event).getGuesses());
+        } else if (event instanceof GameEvent.GameLost) {
+            finish(event.getGameId(), false, INumberleModel.MAX_ATTEMPTS);
+        }
+    }
+
+    private void finish(long gameId, boolean win, int guesses) {
+        OpenGame game = openGames.remove(gameId);
+        if (game == null) return; // started before the oldest record still known
+        global.record(win, guesses);
+        players.computeIfAbsent(game.player, p -> new Summary()).record(win, guesses);
+        targets.computeIfAbsent(game.target, TargetSummary::new).record(win, guesses);
+    }
+
+    public synchronized Summary getGlobal() {
+        return global;
+    }
+
+    // Totals for the player, empty if the player has not finished a game
+    public synchronized Summary getPlayer(String playerId) {
+        Summary summary = players.get(playerId);
+        return summary != null ? summary : new Summary();
+    }
+
+    // Targets played at least minPlayed times, hardest first by average guesses (losses count as 7)
+    public synchronized List<TargetSummary> getHardestTargets(int limit, long minPlayed) {
+        List<TargetSummary> hardest = new ArrayList<>();
+        for (TargetSummary target : targets.values()) {
+            if (target.played >= minPlayed) hardest.add(target);
+        }
+        hardest.sort((a, b) -> Double.compare(b.getAverageGuesses(), a.getAverageGuesses()));
+        return hardest.size() > limit ? new ArrayList<>(hardest.subList(0, limit)) : hardest;
+    }
+
+    private Path checkpointFile() {
+        return journalDirectory.resolve(CHECKPOINT_FILE);
+    }
+
+    private void writeCheckpoint() throws IOException {
+        Files.createDirectories(journalDirectory);
+        Path temp = Files.createTempFile(journalDirectory, CHECKPOINT_FILE, ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(position.getSegment());
+                out.writeLong(position.getOffset());
+                global.write(out);
+                out.writeInt(players.size());
+                for (Map.Entry<String, Summary> player : players.entrySet()) {
+                    out.writeUTF(player.getKey());
+                    player.getValue().write(out);
+                }
+                out.writeInt(targets.size());
+                for (TargetSummary target : targets.values()) {
+                    out.writeUTF(target.target);
+                    out.writeLong(target.played);
+                    out.writeLong(target.won);
+                    out.writeLong(target.guesses);
+                }
+                out.writeInt(openGames.size());
+                for (Map.Entry<Long, OpenGame> game : openGames.entrySet()) {
+                    out.writeLong(game.getKey());
+                    out.writeUTF(game.getValue().player);
+                    out.writeUTF(game.getValue().target);
+                }
+            }
+            Files.move(temp, checkpointFile(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Restore the aggregates from the checkpoint, or start from scratch if there is none or it is unreadable
+    private void readCheckpoint() {
+        Path file = checkpointFile();
+        if (!Files.isRegularFile(file)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) throw new IOException("Unknown checkpoint format");
+            position = new GameJournal.Position(in.readLong(), in.readLong());
+            global.read(in);
+            for (int i = in.readInt(); i > 0; i--) {
+                Summary summary = new Summary();
+                String player = in.readUTF();
+                summary.read(in);
+                players.put(player, summary);
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                TargetSummary target = new TargetSummary(in.readUTF());
+                target.played = in.readLong();
+                target.won = in.readLong();
+                target.guesses = in.readLong();
+                targets.put(target.target, target);
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                long gameId = in.readLong();
+                openGames.put(gameId, new OpenGame(in.readUTF(), in.readUTF()));
+            }
+        } catch (IOException e) {
+            System.err.println("Ignoring statistics checkpoint, the journal will be read again: " + e.getMessage());
+            position = GameJournal.Position.START;
+            global.clear();
+            players.clear();
+            targets.clear();
+            openGames.clear();
+        }
+    }
+
+    // Text summary for one player, as shown by the CLI and the GUI
+    public synchronized String describe(String playerId) {
+        Summary player = getPlayer(playerId);
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Played: %d   Win %%: %.0f   Current streak: %d   Max streak: %d%n",
+                player.getPlayed(), player.getWinRate() * 100, player.getCurrentStreak(), player.getMaxStreak()));
+        sb.append("Guess distribution:").append(System.lineSeparator());
+        long most = 1;
+        for (int i = 1; i <= INumberleModel.MAX_ATTEMPTS; i++) {
+            most = Math.max(most, player.getWinsIn(i));
+        }
+        for (int i = 1; i <= INumberleModel.MAX_ATTEMPTS; i++) {
+            long wins = player.getWinsIn(i);
+            sb.append(String.format(Locale.ROOT, "  %d | %-20s %d%n", i, bar(wins * 20 / most), wins));
+        }
+        return sb.toString();
+    }
+
+    // The hardest targets across every player
+    public synchronized String describeHardestTargets(int limit) {
+        StringBuilder sb = new StringBuilder("Hardest equations:").append(System.lineSeparator());
+        for (TargetSummary target : getHardestTargets(limit, 1)) {
+            sb.append(String.format(Locale.ROOT, "  %s  %.2f guesses on average, %.0f%% won of %d%n",
+                    target.getTarget(), target.getAverageGuesses(), target.getWinRate() * 100, target.getPlayed()));
+        }
+        return sb.toString();
+    }
+
+    private static String bar(long length) {
+        char[] chars = new char[(int) length];
+        Arrays.fill(chars, '#');
+        return new String(chars);
+    }
+
+    // Usage: GameStatistics [journal directory]
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : GameJournal.DIRECTORY);
+        long start = System.nanoTime();
+        GameStatistics statistics = load(directory);
+        Summary global = statistics.getGlobal();
+        System.out.println(String.format(Locale.ROOT, "%d games, %.2f%% won (updated in %d ms)",
+                global.getPlayed(), global.getWinRate() * 100, (System.nanoTime() - start) / 1_000_000));
+        System.out.print(statistics.describeHardestTargets(10));
+    }
+}
@@ -0,0 +1,64 @@
+// GameStatistics test.java
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStatisticsTest {
+    @TempDir
+    Path directory;
+
+    // Play one game per entry: a win in the given number of guesses, or a loss for 0
+    private void play(String player, String target, int... results) throws IOException {
+        try (GameJournal journal = GameJournal.open(directory)) {
+            NumberleModel model = new NumberleModel();
+            model.setPlayerId(player);
+            model.addListener(journal);
+            for (int guesses : results) {
+                model.initialize();
+                model.setTargetNumber(target);
+                int misses = guesses == 0 ? INumberleModel.MAX_ATTEMPTS : guesses - 1;
+                for (int i = 0; i < misses; i++) {
+                    model.processInput("4-1*3=1");
+                }
+                if (guesses > 0) model.processInput(target);
+            }
+        }
+    }
+
+    @Test
+    void testAggregates() throws IOException {
+        play("alice", "2+3*2=8", 2, 3, 0, 1, 2);
+        play("bob", "9-3*2=3", 0, 0, 6);
+        GameStatistics statistics = GameStatistics.load(directory);
+        assertEquals(8, statistics.getGlobal().getPlayed());
+        GameStatistics.Summary alice = statistics.getPlayer("alice");
+        assertEquals(5, alice.getPlayed());
+        assertEquals(4, alice.getWon());
+        assertEquals(2, alice.getWinsIn(2), "Alice won twice in two guesses.");
+        assertEquals(2, alice.getCurrentStreak());
+        assertEquals(2, alice.getMaxStreak());
+        GameStatistics.TargetSummary hardest = statistics.getHardestTargets(1, 1).get(0);
+        assertEquals("9-3*2=3", hardest.getTarget(), "Bob's target was lost twice.");
+        assertEquals((7 + 7 + 6) / 3.0, hardest.getAverageGuesses(), 1e-9);
+    }
+
+    @Test
+    void testCheckpointOnlyReadsNewRecords() throws IOException {
+        play("alice", "2+3*2=8", 2, 0);
+        assertEquals(2, GameStatistics.load(directory).getGlobal().getPlayed());
+        assertTrue(Files.exists(directory.resolve(GameStatistics.CHECKPOINT_FILE)));
+        play("alice", "2+3*2=8", 4);
+        GameStatistics resumed = GameStatistics.load(directory);
+        Files.delete(directory.resolve(GameStatistics.CHECKPOINT_FILE));
+        GameStatistics rescanned = GameStatistics.load(directory);
+        assertEquals(3, resumed.getGlobal().getPlayed(), "Games before the checkpoint must not be counted twice.");
+        assertEquals(rescanned.getPlayer("alice").getWinsIn(4), resumed.getPlayer("alice").getWinsIn(4));
+        assertEquals(rescanned.getPlayer("alice").getMaxStreak(), resumed.getPlayer("alice").getMaxStreak());
+    }
+}
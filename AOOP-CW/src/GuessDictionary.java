@@ -0,0 +1,210 @@
+// GuessDictionary.java
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/*
+ * Every legal equation of one length, as a set of nibble codes, so a valid guess is accepted with
+ * one hash probe instead of a parse. Codes are the PackedEquation symbol nibbles without the length
+ * (all 32 bits for 8 symbols); 0 marks an empty slot, which is safe because a legal equation
+ * always holds an '=' and so never encodes to 0.
+ * The table uses open addressing with linear probing at a load of about 0.8, and is reduced to its
+ * size by a multiply rather than a mask, so it does not have to be a power of two: the 1.1M
+ * equations of length 8 take under 6 MB. The table is saved as is, so loading is one bulk read.
+ *
+ * File layout (big-endian):
+ *   int magic, int version, int length, int count, int capacity, int reserved
+ *   then capacity ints, the table
+ * */
+public final class GuessDictionary {
+    public static final int MAX_LENGTH = 8; // 8 nibbles fill an int
+    private static final int MAGIC = 0x4E424744; // "NBGD"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int EMPTY = 0;
+    private static final double LOAD_FACTOR = 0.8;
+
+    private final int length;
+    private final int count;
+    private final int[] table;
+
+    private static final class Holder {
+        static final GuessDictionary INSTANCE = loadOrNull(
+                Paths.get(System.getProperty("user.dir"), fileName(INumberleModel.EQUATION_LENGTH)));
+    }
+
+    private GuessDictionary(int length, int count, int[] table) {
+        this.length = length;
+        this.count = count;
+        this.table = table;
+    }
+
+    // Dictionary for the game's length from the working directory, or null when there is no file
+    public static GuessDictionary getShared() {
+        return Holder.INSTANCE;
+    }
+
+    // guesses-7.bin for length 7
+    public static String fileName(int length) {
+        return "guesses-" + length + ".bin";
+    }
+
+    private static GuessDictionary loadOrNull(Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            GuessDictionary dictionary = load(file);
+            if (dictionary.length == INumberleModel.EQUATION_LENGTH) return dictionary;
+            System.err.println("Ignoring " + file + ", it holds equations of length " + dictionary.length);
+        } catch (IOException e) {
+            System.err.println("Guess dictionary unavailable, guesses will be parsed: " + e.getMessage());
+        }
+        return null;
+    }
+
+    // Every equation EquationGenerator produces without --strict, which is every guess EquationValidator accepts
+    public static GuessDictionary generate(int length) {
+        if (length > MAX_LENGTH) throw new IllegalArgumentException("Codes only hold " + MAX_LENGTH + " symbols");
+        int[][] keys = {new int[1 << 12]};
+        int[] size = {0};
+        new EquationGenerator(length, false).generate((chunk, used) -> {
+            // Encode the chunk on the generator's thread, then append under the lock
+            int[] local = new int[used / (length + 1)];
+            int n = 0;
+            for (int start = 0; start < used; start += length + 1) {
+                local[n++] = key(chunk, start, length);
+            }
+            synchronized (keys) {
+                if (size[0] + n > keys[0].length) keys[0] = Arrays.copyOf(keys[0], Math.max(keys[0].length * 2, size[0] + n));
+                System.arraycopy(local, 0, keys[0], size[0], n);
+                size[0] += n;
+            }
+        });
+        return of(length, keys[0], size[0]);
+    }
+
+    // A dictionary of the first count codes of keys
+    private static GuessDictionary of(int length, int[] keys, int count) {
+        int[] table = new int[Math.max(1, (int) Math.ceil(count / LOAD_FACTOR))];
+        int stored = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = slot(keys[i], table.length);
+            while (table[slot] != EMPTY && table[slot] != keys[i]) {
+                if (++slot == table.length) slot = 0;
+            }
+            if (table[slot] == EMPTY) stored++;
+            table[slot] = keys[i];
+        }
+        return new GuessDictionary(length, stored, table);
+    }
+
+    private static int slot(int key, int capacity) {
+        return (int) (((PackedEquation.hash(key) & 0xFFFFFFFFL) * capacity) >>> 32);
+    }
+
+    // Nibble code of one line of generator output, the line is known to be legal
+    private static int key(byte[] chunk, int start, int length) {
+        int key = 0;
+        for (int i = 0; i < length; i++) {
+            key |= EquationAlphabet.indexOf((char) chunk[start + i]) << (i << 2);
+        }
+        return key;
+    }
+
+    // Whether the guess is a legal equation; false for anything that is not, including brackets
+    public boolean contains(CharSequence guess) {
+        if (guess.length() != length) return false;
+        int key = 0;
+        for (int i = 0; i < length; i++) {
+            int code = EquationAlphabet.indexOf(guess.charAt(i));
+            if (code == EquationAlphabet.OTHER) return false;
+            key |= code << (i << 2);
+        }
+        int slot = slot(key, table.length);
+        while (true) {
+            int stored = table[slot];
+            if (stored == key) return true;
+            if (stored == EMPTY) return false;
+            if (++slot == table.length) slot = 0;
+        }
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Bytes of heap the table takes
+    public long tableBytes() {
+        return 4L * table.length;
+    }
+
+    // Write the dictionary through a temporary file, so a half-written file is never picked up
+    public void save(Path file) throws IOException {
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (RandomAccessFile raf = new RandomAccessFile(temp.toFile(), "rw");
+                 FileChannel channel = raf.getChannel()) {
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 * table.length);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(length).putInt(count).putInt(table.length).putInt(0);
+                buffer.asIntBuffer().put(table);
+                buffer.clear();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static GuessDictionary load(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r");
+             FileChannel channel = raf.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(file + " is not a guess dictionary");
+            }
+            int length = header.getInt();
+            int count = header.getInt();
+            int capacity = header.getInt();
+            if (length < 1 || length > MAX_LENGTH || capacity < 1 || channel.size() != HEADER_SIZE + 4L * capacity) {
+                throw new IOException(file + " is damaged");
+            }
+            ByteBuffer body = ByteBuffer.allocate(4 * capacity);
+            while (body.hasRemaining() && channel.read(body) >= 0) {
+                // read the whole table
+            }
+            body.flip();
+            int[] table = new int[capacity];
+            body.asIntBuffer().get(table);
+            return new GuessDictionary(length, count, table);
+        }
+    }
+
+    // Usage: GuessDictionary [length] [output file], defaults to the game's length and guesses-<length>.bin
+    public static void main(String[] args) throws IOException {
+        int length = args.length > 0 ? Integer.parseInt(args[0]) : INumberleModel.EQUATION_LENGTH;
+        Path output = Paths.get(args.length > 1 ? args[1] : fileName(length));
+        long start = System.nanoTime();
+        GuessDictionary dictionary = generate(length);
+        dictionary.save(output);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.err.println("Built a dictionary of " + dictionary.size() + " equations of length " + length + " ("
+                + dictionary.tableBytes() / 1024 + " KB) in " + millis + " ms: " + output);
+    }
+}
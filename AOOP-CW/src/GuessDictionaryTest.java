@@ -0,0 +1,56 @@
+// GuessDictionary test.java
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GuessDictionaryTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAgreesWithValidator() {
+        int length = 6;
+        GuessDictionary dictionary = GuessDictionary.generate(length);
+        EquationValidator validator = new EquationValidator(length);
+        assertEquals(new EquationGenerator(length, false).generate(s -> { }), dictionary.size(),
+                "One entry per generated equation.");
+        Random random = new Random(24);
+        int valid = 0;
+        for (int i = 0; i < 200_000; i++) {
+            char[] guess = new char[length];
+            for (int j = 0; j < length; j++) {
+                // Mostly digits, so a good share of the guesses are equations
+                guess[j] = j == length - 2 ? '=' : EquationAlphabet.symbolAt(random.nextInt(random.nextBoolean() ? 10 : 14));
+            }
+            String s = new String(guess);
+            boolean expected = validator.validate(s).isValid();
+            if (expected) valid++;
+            assertEquals(expected, dictionary.contains(s), s);
+        }
+        assertTrue(valid > 100, "The random guesses include valid equations.");
+        assertFalse(dictionary.contains("1+1=2"), "Wrong length.");
+        assertFalse(dictionary.contains("(1)=01"), "Brackets are left to the validator.");
+    }
+
+    @Test
+    void testSaveAndLoad() throws IOException {
+        GuessDictionary dictionary = GuessDictionary.generate(5);
+        Path file = directory.resolve(GuessDictionary.fileName(5));
+        dictionary.save(file);
+        GuessDictionary loaded = GuessDictionary.load(file);
+        assertEquals(5, loaded.getLength());
+        assertEquals(dictionary.size(), loaded.size());
+        new EquationGenerator(5, false).generate(s -> assertTrue(loaded.contains(s), s));
+        assertFalse(loaded.contains("1+1=3"));
+
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> GuessDictionary.load(file), "A damaged file is rejected.");
+    }
+}
@@ -0,0 +1,65 @@
+// GuessValidator.java
+
+/*
+ * The checks every front end makes before a guess is played, so the GUI, the CLI, batch mode and
+ * the server accept and explain guesses alike: the dictionary fast path, the full EquationValidator
+ * scan, the model's hard mode constraints, and the validation metrics.
+ * Holds an EquationValidator, so an instance is not thread-safe.
+ * */
+public final class GuessValidator {
+    private final EquationValidator validator = new EquationValidator();
+    // Legal equations as a hash set, if guesses-7.bin was built; a hit skips the parse
+    private final GuessDictionary dictionary;
+
+    // A validation result with the message to show for it
+    public static final class Verdict {
+        static final Verdict VALID = new Verdict(ValidationResult.VALID, ValidationResult.VALID.getMessage());
+
+        private final ValidationResult result;
+        private final String message;
+
+        Verdict(ValidationResult result, String message) {
+            this.result = result;
+            this.message = message;
+        }
+
+        public ValidationResult getResult() {
+            return result;
+        }
+
+        // Why the guess was rejected, naming the symbol and position for hard mode; empty when valid
+        public String getMessage() {
+            return message;
+        }
+
+        public boolean isValid() {
+            return result.isValid();
+        }
+    }
+
+    public GuessValidator() {
+        this(GuessDictionary.getShared());
+    }
+
+    // dictionary may be null, every guess is then parsed
+    GuessValidator(GuessDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    // Check the guess for the model's current game; reads the model, so call it where the model may be read
+    public Verdict validate(CharSequence guess, INumberleModel model) {
+        // A dictionary hit is valid; anything else gets the full scan, which also says why it failed
+        long start = GameMetrics.ENABLED ? System.nanoTime() : 0;
+        ValidationResult result = dictionary != null && dictionary.contains(guess)
+                ? ValidationResult.VALID : validator.validate(guess);
+        String message = result.getMessage();
+        // Hard mode checks the guess against the constraints the model keeps, not the earlier rows
+        if (result.isValid() && model.isHardMode()) {
+            HardModeConstraints constraints = model.getHardModeConstraints();
+            result = constraints.check(guess);
+            if (!result.isValid()) message = constraints.explain(guess);
+        }
+        if (GameMetrics.ENABLED) GameMetrics.recordValidation(result, System.nanoTime() - start);
+        return result.isValid() ? Verdict.VALID : new Verdict(result, message);
+    }
+}
@@ -0,0 +1,53 @@
+// GuessValidator test.java
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GuessValidatorTest {
+    private static final String TARGET = "2+3*2=8";
+
+    private static NumberleModel model(boolean hardMode) {
+        NumberleModel model = new NumberleModel();
+        model.initialize();
+        model.setTargetNumber(TARGET);
+        model.setHardMode(hardMode);
+        model.processInput("3+2*2=7");
+        return model;
+    }
+
+    @Test
+    void testDictionaryAgreesWithTheParse() {
+        GuessValidator parsed = new GuessValidator(null);
+        GuessValidator looked = new GuessValidator(GuessDictionary.generate(INumberleModel.EQUATION_LENGTH));
+        NumberleModel model = model(false);
+        for (String guess : new String[]{TARGET, "4-1*3=1", "1+1+1=4", "10*4=4", "", "1++2=33", "7/0=0+0"}) {
+            GuessValidator.Verdict expected = parsed.validate(guess, model);
+            GuessValidator.Verdict actual = looked.validate(guess, model);
+            assertEquals(expected.getResult(), actual.getResult(), guess);
+            assertEquals(expected.getMessage(), actual.getMessage(), guess);
+        }
+        assertEquals(ValidationResult.NOT_EQUAL, parsed.validate("1+1+1=4", model).getResult());
+        assertTrue(parsed.validate(TARGET, model).isValid());
+    }
+
+    @Test
+    void testHardModeIsExplained() {
+        GuessValidator validator = new GuessValidator(null);
+        GuessValidator.Verdict verdict = validator.validate("2*3-2=4", model(true));
+        assertEquals(ValidationResult.HARD_MODE_FIXED, verdict.getResult());
+        assertEquals("Hard mode: position 2 must stay '+'.", verdict.getMessage());
+        assertTrue(validator.validate("2*3-2=4", model(false)).isValid(), "Only checked in hard mode.");
+    }
+
+    @Test
+    void testEveryCheckIsCounted() {
+        GameMetrics metrics = GameMetrics.get();
+        long validations = metrics.getLatency(GameMetrics.Operation.VALIDATE).getCount();
+        long hardMode = metrics.getRejections(ValidationResult.HARD_MODE_FIXED);
+        GuessValidator validator = new GuessValidator(null);
+        validator.validate(TARGET, model(false));
+        validator.validate("2*3-2=4", model(true));
+        assertEquals(validations + 2, metrics.getLatency(GameMetrics.Operation.VALIDATE).getCount());
+        assertEquals(hardMode + 1, metrics.getRejections(ValidationResult.HARD_MODE_FIXED));
+    }
+}
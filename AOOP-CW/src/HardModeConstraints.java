@@ -0,0 +1,129 @@
+// HardModeConstraints.java
+import java.util.Arrays;
+
+/*
+ * What hard mode requires of the next guess, kept up to date after every scored guess instead of
+ * replaying the earlier rows: the green symbol fixed at each position, the yellow symbols banned
+ * from the position they were revealed at, and the least number of copies of each symbol the
+ * target is known to hold. Fixed symbols and counts are nibble-packed like PackedEquation and
+ * FeedbackEngine, so checking a guess is a few word operations whatever the game's history.
+ * */
+public final class HardModeConstraints {
+    private static final int FIXED = 1;   // a green symbol was moved or replaced
+    private static final int MISSING = 2; // a revealed symbol is used too few times
+    private static final int BANNED = 3;  // a yellow symbol is back where it was yellow
+    // Top bit of every count nibble; counts never reach 8, so nibble-wise subtraction cannot borrow
+    private static final long COUNT_HIGH_BITS = 0x8888888888888888L;
+
+    private int fixedSymbols; // nibble i is the green symbol at position i
+    private int fixedMask;    // nibble i is 0xF when position i is green
+    private final short[] banned = new short[PackedEquation.MAX_LENGTH]; // bit s: symbol s is not at position i
+    private long minCounts;   // nibble s is the least number of copies of symbol s in the target
+
+    // Learn from a scored guess, pattern as returned by FeedbackEngine.score
+    public void update(CharSequence guess, int pattern) {
+        assert guess.length() <= PackedEquation.MAX_LENGTH : "Guess is too long for hard mode";
+        long seen = 0;
+        for (int i = 0; i < guess.length(); i++, pattern /= 3) {
+            int s = EquationAlphabet.indexOf(guess.charAt(i));
+            int status = pattern % 3;
+            // Brackets have no code of their own, so hard mode cannot track them
+            if (s == EquationAlphabet.OTHER || status == FeedbackEngine.ABSENT) continue;
+            if (status == FeedbackEngine.CORRECT) {
+                fixedSymbols |= s << (i << 2);
+                fixedMask |= 0xF << (i << 2);
+            } else {
+                banned[i] |= 1 << s;
+            }
+            seen += 1L << (s << 2);
+        }
+        // Nibble-wise max of the counts this guess proved and those proved before
+        long atLeast = ((seen | COUNT_HIGH_BITS) - minCounts) & COUNT_HIGH_BITS;
+        long keepSeen = (atLeast >>> 3) * 0xF;
+        minCounts = (seen & keepSeen) | (minCounts & ~keepSeen);
+    }
+
+    // Forget every constraint, for a new game
+    public void reset() {
+        fixedSymbols = 0;
+        fixedMask = 0;
+        minCounts = 0;
+        Arrays.fill(banned, (short) 0);
+    }
+
+    // VALID, or the kind of hard mode rule the guess breaks; explain() says exactly which
+    public ValidationResult check(CharSequence guess) {
+        switch (violation(guess) >>> 8) {
+            case FIXED:
+                return ValidationResult.HARD_MODE_FIXED;
+            case MISSING:
+                return ValidationResult.HARD_MODE_MISSING;
+            case BANNED:
+                return ValidationResult.HARD_MODE_BANNED;
+            default:
+                return ValidationResult.VALID;
+        }
+    }
+
+    // The first rule the guess breaks, naming the symbol and position, or null if it breaks none
+    public String explain(CharSequence guess) {
+        int violation = violation(guess);
+        if (violation < 0) return null;
+        char symbol = EquationAlphabet.symbolAt((violation >>> 4) & 0xF);
+        int position = (violation & 0xF) + 1; // counted from 1 for the player
+        switch (violation >>> 8) {
+            case FIXED:
+                return "Hard mode: position " + position + " must stay '" + symbol + "'.";
+            case MISSING:
+                int copies = minCount(symbol);
+                return copies == 1 ? "Hard mode: the equation must use '" + symbol + "'."
+                        : "Hard mode: the equation must use '" + symbol + "' at least " + copies + " times.";
+            default:
+                return "Hard mode: '" + symbol + "' is known not to be in position " + position + ".";
+        }
+    }
+
+    // kind << 8 | symbol << 4 | position of the first broken rule, -1 if there is none
+    private int violation(CharSequence guess) {
+        int length = guess.length();
+        assert length <= PackedEquation.MAX_LENGTH : "Guess is too long for hard mode";
+        int symbols = 0; // like PackedEquation, but brackets keep their OTHER code
+        long counts = 0;
+        int bannedAt = -1;
+        for (int i = 0; i < length; i++) {
+            int s = EquationAlphabet.indexOf(guess.charAt(i));
+            symbols |= s << (i << 2);
+            if (s == EquationAlphabet.OTHER) continue;
+            counts += 1L << (s << 2);
+            if (bannedAt < 0 && (banned[i] & (1 << s)) != 0) bannedAt = s << 4 | i;
+        }
+        int moved = (symbols ^ fixedSymbols) & fixedMask;
+        if (moved != 0) {
+            int position = Integer.numberOfTrailingZeros(moved) >>> 2;
+            return FIXED << 8 | ((fixedSymbols >>> (position << 2)) & 0xF) << 4 | position;
+        }
+        // A nibble loses its top bit when the guess has fewer copies than required
+        long missing = ~((counts | COUNT_HIGH_BITS) - minCounts) & COUNT_HIGH_BITS;
+        if (missing != 0) {
+            return MISSING << 8 | (Long.numberOfTrailingZeros(missing) >>> 2) << 4;
+        }
+        return bannedAt < 0 ? -1 : BANNED << 8 | bannedAt;
+    }
+
+    // The green symbol at the position, or -1 when none has been revealed there
+    public int fixedAt(int position) {
+        return ((fixedMask >>> (position << 2)) & 0xF) == 0 ? -1 : (fixedSymbols >>> (position << 2)) & 0xF;
+    }
+
+    // Whether the symbol was yellow at the position
+    public boolean isBanned(int position, char symbol) {
+        int s = EquationAlphabet.indexOf(symbol);
+        return s != EquationAlphabet.OTHER && (banned[position] & (1 << s)) != 0;
+    }
+
+    // Least number of copies of the symbol the target is known to hold
+    public int minCount(char symbol) {
+        int s = EquationAlphabet.indexOf(symbol);
+        return s == EquationAlphabet.OTHER ? 0 : (int) ((minCounts >>> (s << 2)) & 0xF);
+    }
+}
@@ -0,0 +1,52 @@
+// HardModeConstraints test.java
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HardModeConstraintsTest {
+    private static final String TARGET = "2+3*2=8";
+
+    // Constraints after "3+2*2=7": greens + * 2 =, yellows 3 and 2, and two 2s in the target
+    private HardModeConstraints afterFirstGuess() {
+        NumberleModel model = new NumberleModel();
+        model.initialize();
+        model.setTargetNumber(TARGET);
+        model.processInput("3+2*2=7");
+        return model.getHardModeConstraints();
+    }
+
+    @Test
+    void testConstraintsFollowFeedback() {
+        HardModeConstraints constraints = afterFirstGuess();
+        assertEquals(EquationAlphabet.indexOf('+'), constraints.fixedAt(1));
+        assertEquals(-1, constraints.fixedAt(0), "Position 1 was yellow, not green.");
+        assertTrue(constraints.isBanned(0, '3'));
+        assertEquals(2, constraints.minCount('2'), "One green and one yellow 2 mean at least two.");
+        assertEquals(0, constraints.minCount('7'));
+        assertEquals(ValidationResult.VALID, constraints.check(TARGET));
+    }
+
+    @Test
+    void testPreciseRejections() {
+        HardModeConstraints constraints = afterFirstGuess();
+        assertEquals(ValidationResult.HARD_MODE_FIXED, constraints.check("2-3*2=8"));
+        assertEquals("Hard mode: position 2 must stay '+'.", constraints.explain("2-3*2=8"));
+        assertEquals(ValidationResult.HARD_MODE_MISSING, constraints.check("4+2*2=8"));
+        assertEquals("Hard mode: the equation must use '3'.", constraints.explain("4+2*2=8"));
+        assertEquals("Hard mode: the equation must use '2' at least 2 times.", constraints.explain("3+3*2=9"));
+        assertEquals(ValidationResult.HARD_MODE_BANNED, constraints.check("3+2*2=3"));
+        assertEquals("Hard mode: '3' is known not to be in position 1.", constraints.explain("3+2*2=3"));
+        assertNull(constraints.explain(TARGET));
+    }
+
+    @Test
+    void testCountsOnlyGrow() {
+        HardModeConstraints constraints = new HardModeConstraints();
+        constraints.update("3+2*2=7", FeedbackEngine.score("3+2*2=7", TARGET));
+        // This guess proves a single 2, which must not lower the two already known
+        constraints.update("2-1+4=5", FeedbackEngine.score("2-1+4=5", TARGET));
+        assertEquals(2, constraints.minCount('2'));
+        constraints.reset();
+        assertEquals(ValidationResult.VALID, constraints.check("2-3*2=8"), "A new game has no constraints.");
+    }
+}
@@ -4,6 +4,7 @@ import java.util.List;
 
 public interface INumberleModel {
     int MAX_ATTEMPTS = 6; // Maximum guesses
+    int EQUATION_LENGTH = 7; // Characters in every equation
 
     void initialize();
     boolean processInput(String input);
@@ -15,4 +16,11 @@ public interface INumberleModel {
     void startNewGame();
     int[] matchInput(char[] inputChars);
     void setTargetNumber(String newTarget);
+    CandidateIndex getRemainingCandidates(); // live view, narrowed after every processInput
+    void addListener(GameEventListener listener);    // events are published on the thread that changed the model
+    void removeListener(GameEventListener listener);
+    String getPlayerId(); // recorded in the journal with every game
+    void setHardMode(boolean hardMode); // guesses must then respect everything revealed so far
+    boolean isHardMode();
+    HardModeConstraints getHardModeConstraints(); // updated after every processInput, hard mode or not
 }
\ No newline at end of file
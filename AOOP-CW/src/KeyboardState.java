@@ -0,0 +1,52 @@
+// KeyboardState.java
+import java.util.Arrays;
+
+/*
+ * The best feedback seen so far for every key of the on-screen keyboard, one byte per symbol.
+ * A key's status only ever improves (unknown -> absent -> present -> correct), so a later guess
+ * can never turn a green key orange. apply() reports which keys changed as a bitmask over
+ * EquationAlphabet codes, so front ends only redraw those.
+ * */
+public final class KeyboardState {
+    public static final int UNKNOWN = 3; // never guessed, ranks below FeedbackEngine.ABSENT
+
+    private final byte[] best = new byte[EquationAlphabet.SIZE];
+
+    public KeyboardState() {
+        Arrays.fill(best, (byte) UNKNOWN);
+    }
+
+    // Record a scored guess, returns bit s set for every symbol code s whose status improved
+    public int apply(CharSequence guess, int pattern) {
+        int changed = 0;
+        for (int i = 0; i < guess.length(); i++) {
+            int s = EquationAlphabet.indexOf(guess.charAt(i));
+            int status = FeedbackEngine.statusAt(pattern, i);
+            // Brackets have no key, and lower statuses are better
+            if (s == EquationAlphabet.OTHER || status >= best[s]) continue;
+            best[s] = (byte) status;
+            changed |= 1 << s;
+        }
+        return changed;
+    }
+
+    // Forget every guess, returns the keys that were not UNKNOWN and so need resetting
+    public int reset() {
+        int changed = 0;
+        for (int s = 0; s < best.length; s++) {
+            if (best[s] != UNKNOWN) changed |= 1 << s;
+        }
+        Arrays.fill(best, (byte) UNKNOWN);
+        return changed;
+    }
+
+    // Best status of a symbol code: a FeedbackEngine status, or UNKNOWN
+    public int statusAt(int code) {
+        return best[code];
+    }
+
+    public int statusOf(char symbol) {
+        int s = EquationAlphabet.indexOf(symbol);
+        return s == EquationAlphabet.OTHER ? UNKNOWN : best[s];
+    }
+}
@@ -0,0 +1,34 @@
+// KeyboardState test.java
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyboardStateTest {
+    @Test
+    void testStatusOnlyImproves() {
+        KeyboardState keyboard = new KeyboardState();
+        int changed = keyboard.apply("1+2*3=7", FeedbackEngine.encode(new int[]{0, 1, 2, 2, 2, 0, 2}));
+        assertEquals(FeedbackEngine.CORRECT, keyboard.statusOf('1'));
+        assertEquals(FeedbackEngine.PRESENT, keyboard.statusOf('+'));
+        assertEquals(FeedbackEngine.ABSENT, keyboard.statusOf('7'));
+        assertEquals(KeyboardState.UNKNOWN, keyboard.statusOf('9'));
+        assertEquals(7, Integer.bitCount(changed), "Every symbol of the first guess is new.");
+
+        // A later grey 1 and orange 7 must not downgrade or skip anything
+        changed = keyboard.apply("7+1*1=8", FeedbackEngine.encode(new int[]{1, 0, 2, 2, 2, 0, 2}));
+        assertEquals(FeedbackEngine.CORRECT, keyboard.statusOf('1'), "A green key never gets worse.");
+        assertEquals(FeedbackEngine.PRESENT, keyboard.statusOf('7'));
+        int expected = 1 << EquationAlphabet.indexOf('7') | 1 << EquationAlphabet.indexOf('+')
+                | 1 << EquationAlphabet.indexOf('8');
+        assertEquals(expected, changed, "Only the keys that improved are reported.");
+    }
+
+    @Test
+    void testResetReportsColoredKeys() {
+        KeyboardState keyboard = new KeyboardState();
+        keyboard.apply("9-3*2=3", FeedbackEngine.encode(new int[]{2, 2, 2, 2, 2, 2, 2}));
+        assertEquals(6, Integer.bitCount(keyboard.reset()), "Six distinct symbols were colored.");
+        assertEquals(KeyboardState.UNKNOWN, keyboard.statusOf('9'));
+        assertEquals(0, keyboard.reset(), "Nothing is left to reset.");
+    }
+}
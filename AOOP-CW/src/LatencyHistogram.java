@@ -0,0 +1,95 @@
+// LatencyHistogram.java
+
+/*
+ * Log-linear histogram of durations in nanoseconds, in the style of HdrHistogram.
+ * Values are grouped by power of two and each power is split into 32 sub-buckets,
+ * so every recorded value is kept to within about 3% with a fixed array of counters.
+ * Not thread-safe: record on one thread and merge the histograms afterwards.
+ * */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_SHIFT = 40; // about 18 minutes, anything slower is clamped
+    static final int BUCKETS = (MAX_SHIFT + 2) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long sum;
+    private long max;
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[bucketOf(nanos)]++;
+        total++;
+        sum += nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    // Add every value recorded by the other histogram to this one
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        sum += other.sum;
+        if (other.max > max) max = other.max;
+    }
+
+    public void reset() {
+        java.util.Arrays.fill(counts, 0);
+        total = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < 2 * SUB_BUCKETS) return (int) nanos;
+        int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+        if (shift > MAX_SHIFT) return BUCKETS - 1;
+        return shift * SUB_BUCKETS + (int) (nanos >>> shift);
+    }
+
+    // Smallest value that falls into the bucket
+    static long lowestValueOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (bucket - shift * SUB_BUCKETS) << shift;
+    }
+
+    // Value at the given percentile (0-100), to the precision of its bucket
+    public long percentile(double percentile) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(percentile / 100.0 * total);
+        if (rank < 1) rank = 1;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(lowestValueOf(i), max);
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return total == 0 ? 0 : (double) sum / total;
+    }
+
+    long countAt(int bucket) {
+        return counts[bucket];
+    }
+
+    // Add counts gathered elsewhere bucket by bucket, as ConcurrentLatencyHistogram does
+    void add(int bucket, long count, long sumDelta, long maxValue) {
+        counts[bucket] += count;
+        total += count;
+        sum += sumDelta;
+        if (maxValue > max) max = maxValue;
+    }
+}
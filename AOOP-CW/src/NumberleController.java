@@ -1,11 +1,55 @@
 // NumberleController.java
-import java.util.Stack;
+import javax.swing.SwingUtilities;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
-public class NumberleController {
+public class NumberleController implements AutoCloseable {
     private INumberleModel model;
     private NumberleView view;
+    private final GuessValidator validator = new GuessValidator();
+    private final NumberleSolver solver; // ranks the model's own candidates, which processInput narrows
+    // Precomputed strategy, if decision-tree.bin was built for this corpus; hints follow it while the player does
+    private final DecisionTree tree = DecisionTree.getShared();
+    private int treeNode = tree == null ? DecisionTree.NONE : DecisionTree.ROOT;
+    // Model and solver work of the asynchronous methods: one thread, so tasks run in order and never overlap
+    private final Executor worker;
+    // Where results are handed back to the view, the event dispatch thread
+    private final Executor ui;
+    private final ExecutorService ownWorker; // the worker when this controller created it, shut down by close()
+    // Bumped by every new game, work submitted for an older game is skipped and its results dropped
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean guessInFlight = new AtomicBoolean();
+
     public NumberleController(INumberleModel model) {
+        this(model, Executors.newSingleThreadExecutor(r -> {
+            // The thread is only started by the first asynchronous call
+            Thread thread = new Thread(r, "numberle-controller");
+            thread.setDaemon(true);
+            return thread;
+        }), SwingUtilities::invokeLater, true);
+    }
+
+    // worker must run tasks one at a time in order; tests pass executors that run only when told to
+    NumberleController(INumberleModel model, Executor worker, Executor ui) {
+        this(model, worker, ui, false);
+    }
+
+    private NumberleController(INumberleModel model, Executor worker, Executor ui, boolean ownsWorker) {
         this.model = model;
+        this.solver = new NumberleSolver(model.getRemainingCandidates(), FeedbackMatrix.getShared());
+        this.worker = worker;
+        this.ui = ui;
+        this.ownWorker = ownsWorker ? (ExecutorService) worker : null;
+    }
+
+    // Stop the worker thread; asynchronous calls are rejected afterwards
+    @Override
+    public void close() {
+        if (ownWorker != null) ownWorker.shutdown();
     }
     public void setView(NumberleView view) {
         this.view = view;
@@ -13,39 +57,115 @@ public class NumberleController {
 
     // Verify that the equation entered by the user is valid
     public boolean validateInput(String input){
-        if (input.isEmpty()) {
-            view.displayError("Input cannot be empty");
-            return false;
-        }
-        if (!input.matches("^[0-9+-/*=()]*$") || input.length() != 7) {
-            view.displayError("The Equation is invalid。");
-            return false;
-        }
-        if (!input.contains("=")) {
-            view.displayError("Equation must include an equals sign.");
+        String error = validationError(input);
+        if (error != null) {
+            view.displayError(error);
             return false;
         }
         if (getRemainingAttempts() <= 0) {
             view.showGameEndMessage();
             return false;
         }
+        return true;
+    }
 
-        // Check if the input forms a valid equation, if not, display an error message indicating that the equation is not valid.
-        // Split the equation into left and right parts
-        String[] parts = input.split("=");
-        assert parts.length == 2 : "Equation must split into exactly two parts by the equals sign.";
-        // Process the expression on the left side of the equation
-        int leftResult = evaluateExpression(parts[0].trim());
-        // Convert the right side of the equation to an integer
-        int rightResult = evaluateExpression(parts[1].trim());
-        // Check if both sides of the equation are equal
-        if (leftResult != rightResult) {
-            view.displayError("The left side is not equal to right side.");
-            return false;
-        }
+    // Why the input cannot be played, or null if it can; touches no view, so any thread may call it
+    private String validationError(String input) {
+        GuessValidator.Verdict verdict = validator.validate(input, model);
+        return verdict.isValid() ? null : verdict.getMessage();
+    }
+
+    /*
+     * processInput for the event dispatch thread: validation, scoring, the solver and, once the game
+     * ends, the statistics all run on the worker thread, and only the finished Submission is shown
+     * on the EDT. A submission made while the previous guess is still in flight is dropped, and one
+     * that completes after a new game has started is never shown.
+     * Returns false when the input was dropped.
+     * */
+    public boolean submitInput(String input) {
+        if (!guessInFlight.compareAndSet(false, true)) return false;
+        long submitted = generation.get();
+        worker.execute(() -> {
+            Submission submission = null;
+            try {
+                if (submitted == generation.get()) submission = score(input);
+            } finally {
+                Submission result = submission;
+                ui.execute(() -> {
+                    guessInFlight.set(false);
+                    if (result != null && submitted == generation.get()) show(result);
+                });
+            }
+        });
         return true;
     }
 
+    // The worker thread's half of submitInput
+    private Submission score(String input) {
+        String error = validationError(input);
+        if (error != null) return new Submission(error);
+        Submission submission = new Submission(null);
+        if (model.getRemainingAttempts() > 0) {
+            submission.won = model.processInput(input);
+            if (!submission.won) {
+                submission.matchResults = model.matchInput(input.toCharArray());
+                int pattern = FeedbackEngine.encode(submission.matchResults);
+                if (tree != null) treeNode = tree.follow(treeNode, input, pattern);
+                submission.guess = input;
+                submission.row = INumberleModel.MAX_ATTEMPTS - model.getRemainingAttempts() - 1;
+            }
+        }
+        submission.gameOver = model.isGameOver();
+        // Reading the statistics waits for the journal, so it is done here rather than on the EDT
+        if (submission.gameOver) submission.statistics = getStatistics();
+        return submission;
+    }
+
+    // The EDT's half of submitInput, the same view updates as processInput; tests override it to see what is shown
+    void show(Submission submission) {
+        if (submission.error != null) {
+            view.displayError(submission.error);
+            return;
+        }
+        view.showNewGameButton();
+        if (submission.matchResults != null) {
+            view.updateViewWithMatchResults(submission.matchResults, submission.guess, submission.row);
+        }
+        if (submission.gameOver) view.showGameEnd(submission.won, true, submission.statistics);
+    }
+
+    // Everything the view needs from one submitted guess, so it never reads the model while the worker writes it
+    static final class Submission {
+        final String error;  // rejection message, null when the guess was played
+        boolean won;
+        boolean gameOver;
+        int[] matchResults;  // null when the guess won or was not played
+        String guess;
+        int row;
+        String statistics;   // only when the game is over, null if games are not recorded
+
+        Submission(String error) {
+            this.error = error;
+        }
+    }
+
+    // startNewGame on the worker thread; results still pending for the old game are dropped from now on
+    public void startNewGameAsync() {
+        generation.incrementAndGet();
+        worker.execute(this::startNewGame);
+    }
+
+    // getHint on the worker thread, the hint (or null) is handed to the callback on the EDT
+    public void requestHint(Consumer<String> callback) {
+        long requested = generation.get();
+        worker.execute(() -> {
+            String hint = requested == generation.get() ? getHint() : null;
+            ui.execute(() -> {
+                if (requested == generation.get()) callback.accept(hint);
+            });
+        });
+    }
+
     public void processInput(String input) {
         if(!validateInput(input))return;
         view.showNewGameButton();
@@ -55,6 +175,8 @@ public class NumberleController {
             char[] inputChars = input.toCharArray();
             int[] matchResults = model.matchInput(inputChars);
             assert matchResults != null : "matchResults is null";
+            int pattern = FeedbackEngine.encode(matchResults);
+            if (tree != null) treeNode = tree.follow(treeNode, input, pattern);
 
             view.updateViewWithMatchResults(matchResults, getCurrentGuess());
             if (getRemainingAttempts() <= 0) {
@@ -85,55 +207,31 @@ public class NumberleController {
 
     public void startNewGame() {
         model.startNewGame();
+        treeNode = tree == null ? DecisionTree.NONE : DecisionTree.ROOT;
     }
 
-    // Convert the expression to a character array for processing
-    private int evaluateExpression(String expression) {
-        char[] tokens = expression.toCharArray();
-        Stack<Integer> values = new Stack<>();
-        Stack<Character> ops = new Stack<>();
-
-        for (int i = 0; i < tokens.length; i++) {
-            // If the token is a number, push it to the value stack
-            if (Character.isDigit(tokens[i])) {
-                StringBuilder sb = new StringBuilder();
-                // It could be a multi-digit number
-                while (i < tokens.length && Character.isDigit(tokens[i])) {
-                    sb.append(tokens[i++]);
-                }
-                values.push(Integer.parseInt(sb.toString()));
-                i--; // Necessary because the for loop also increments i
-            } else if (tokens[i] == '+' || tokens[i] == '-' || tokens[i] == '*' || tokens[i] == '/') {
-                // Compare the precedence of the current operator with the operator on top of the stack
-                while (!ops.isEmpty() && hasPrecedence(tokens[i], ops.peek())) {
-                    values.push(applyOp(ops.pop(), values.pop(), values.pop()));
-                }
-                // Push the current operator onto the stack
-                ops.push(tokens[i]);
-            }
-        }
-        // The entire expression has been processed, apply the remaining operators to the remaining values
-        while (!ops.isEmpty()) {
-            values.push(applyOp(ops.pop(), values.pop(), values.pop()));
-        }
-        return values.pop();
+    public boolean isHardMode() {
+        return model.isHardMode();
+    }
+
+    public void setHardMode(boolean hardMode) {
+        model.setHardMode(hardMode);
     }
 
-    // Determines if the precedence of op2 is greater than or equal to op1
-    private boolean hasPrecedence(char op1, char op2) {
-        return (op1 != '*' && op1 != '/') || (op2 != '+' && op2 != '-');
+    // The player's statistics including the game just finished, null when games are not recorded
+    public String getStatistics() {
+        GameStatistics statistics = GameStatistics.refreshShared();
+        return statistics == null ? null : statistics.describe(model.getPlayerId());
     }
 
-    // Operate
-    private int applyOp(char op, int b, int a) {
-        switch (op) {
-            case '+': return a + b;
-            case '-': return a - b;
-            case '*': return a * b;
-            case '/':
-                if (b == 0) throw new UnsupportedOperationException("Cannot divide by zero");
-                return a / b;
+    // Suggest the next guess: the tree's while the player follows it, else the best of the equations that still fit
+    public String getHint() {
+        // In hard mode a hint must be a guess the player is allowed to submit
+        HardModeConstraints constraints = model.isHardMode() ? model.getHardModeConstraints() : null;
+        if (treeNode != DecisionTree.NONE) {
+            String guess = tree.guessAt(treeNode);
+            if (constraints == null || constraints.check(guess).isValid()) return guess;
         }
-        return 0;
+        return solver.bestGuess(constraints);
     }
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+// NumberleController test.java
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumberleControllerTest {
+    // Runs the queued tasks only when told to, so each step of the hand-off can be checked
+    private static final class ManualExecutor implements Executor {
+        final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) tasks.poll().run();
+        }
+    }
+
+    private NumberleModel model;
+    private ManualExecutor worker;
+    private ManualExecutor ui;
+    private List<NumberleController.Submission> shown;
+    private NumberleController controller;
+
+    @BeforeEach
+    void setUp() {
+        model = new NumberleModel();
+        model.initialize();
+        model.setTargetNumber("2+3*2=8");
+        worker = new ManualExecutor();
+        ui = new ManualExecutor();
+        shown = new ArrayList<>();
+        controller = new NumberleController(model, worker, ui) {
+            @Override
+            void show(Submission submission) {
+                shown.add(submission);
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        controller.close();
+    }
+
+    @Test
+    void testSecondSubmitIsDroppedWhileOneIsInFlight() {
+        assertTrue(controller.submitInput("4-1*3=1"));
+        assertFalse(controller.submitInput("1+2+3=6"), "A guess is already being scored.");
+        worker.runAll();
+        assertFalse(controller.submitInput("1+2+3=6"), "Still in flight until the EDT has shown the result.");
+        ui.runAll();
+        assertEquals(1, shown.size());
+        assertEquals("4-1*3=1", shown.get(0).guess);
+        assertEquals(0, shown.get(0).row);
+        assertEquals(INumberleModel.MAX_ATTEMPTS - 1, model.getRemainingAttempts(), "The dropped guess was not played.");
+        assertTrue(controller.submitInput("1+2+3=6"), "Accepted again once the result is shown.");
+    }
+
+    @Test
+    void testResultOfAnOldGameIsDiscarded() {
+        assertTrue(controller.submitInput("4-1*3=1"));
+        worker.runAll();
+        controller.startNewGameAsync();
+        ui.runAll();
+        assertTrue(shown.isEmpty(), "Scored before the new game, shown after it.");
+        assertTrue(controller.submitInput("4-1*3=1"), "The dropped result still ends the flight.");
+    }
+
+    @Test
+    void testGuessOfAnOldGameIsNotScored() {
+        assertTrue(controller.submitInput("4-1*3=1"));
+        controller.startNewGameAsync();
+        worker.runAll();
+        ui.runAll();
+        assertTrue(shown.isEmpty());
+        assertEquals(INumberleModel.MAX_ATTEMPTS, model.getRemainingAttempts(), "Nothing is played in the new game.");
+    }
+
+    @Test
+    void testHintIsDroppedAfterNewGame() {
+        List<String> hints = new ArrayList<>();
+        controller.requestHint(hints::add);
+        worker.runAll();
+        assertTrue(hints.isEmpty(), "The callback runs on the EDT.");
+        ui.runAll();
+        assertEquals(1, hints.size());
+        assertNotNull(hints.get(0));
+
+        controller.requestHint(hints::add);
+        controller.startNewGameAsync();
+        worker.runAll();
+        ui.runAll();
+        assertEquals(1, hints.size(), "A hint for the old game is not handed back.");
+    }
+}
@@ -1,45 +1,66 @@
 // NumberleModel.java
-import java.nio.charset.StandardCharsets;
-import java.util.List;
-import java.util.Random;
-import java.util.Observable;
-import java.io.*;
-import java.nio.file.*;
-
-public class NumberleModel extends Observable implements INumberleModel {
+import java.util.concurrent.atomic.AtomicLong;
+
+public class NumberleModel implements INumberleModel {
+    private static final String DEFAULT_EQUATION = "7-2*3=1"; // Fallback when no equation can be loaded
+    // Seeded from the clock so game ids stay unique across restarts of the journal's writer
+    private static final AtomicLong NEXT_GAME_ID = new AtomicLong(System.currentTimeMillis() << 16);
     private String targetNumber;
+    private int packedTarget; // PackedEquation code of targetNumber, INVALID when it cannot be packed
     private StringBuilder currentGuess;
     private int remainingAttempts;
     private boolean gameWon;
+    // Guesses of the current game and their packed feedback, in order
+    private final String[] guesses = new String[MAX_ATTEMPTS];
+    private final int[] patterns = new int[MAX_ATTEMPTS];
+    private int guessCount;
+    private CandidateIndex candidates; // created on first use, then narrowed after every guess
+    private final GameEventBus events = new GameEventBus();
+    private long gameId;
+    // GameStarted goes out with the first guess, once the target can no longer change
+    private boolean startPending;
+    private long startedAt;
+    private String playerId = System.getProperty("user.name", "local");
+    // Kept up to date in every game so hard mode can also be switched on halfway through
+    private final HardModeConstraints constraints = new HardModeConstraints();
+    private volatile boolean hardMode = "true".equalsIgnoreCase(System.getProperty("numberle.hardMode"));
 
     @Override
     // Initialize the game and set up the equations
     public void initialize() {
-        try {
-            // Load all equations from the file into a list
-            List<String> lines = Files.readAllLines(Paths.get(System.getProperty("user.dir"), "equations.txt"), StandardCharsets.UTF_8);
-            assert lines.size() == 108 : "File should contain 108 lines, but actually contains " + lines.size() + " lines.";
-
-            // Randomly select one equation
-            Random rand = new Random();
-            targetNumber = lines.get(rand.nextInt(lines.size()));
+        long start = GameMetrics.ENABLED ? System.nanoTime() : 0;
+        // The corpus is loaded once and shared, so starting a game only draws a random entry
+        EquationCorpus corpus = EquationCorpus.getInstance();
+        if (corpus.isEmpty()) {
+            System.err.println("No equations available in " + EquationCorpus.FILE_NAME + ", using the default equation.");
+            targetNumber = DEFAULT_EQUATION;
+            packedTarget = PackedEquation.encode(DEFAULT_EQUATION);
+        } else {
+            int index = corpus.randomIndex();
+            targetNumber = corpus.get(index);
+            packedTarget = corpus.getPacked(index);
             // System.out.println("---(Testing) targetNumber:"+targetNumber+"---");
             assert !targetNumber.isEmpty() : "Target equation is empty, unable to select an equation.";
-        } catch (IOException e) {
-            // Handle possible I/O errors here
-            System.err.println("Error reading from equations.txt file: " + e.getMessage());
-            e.printStackTrace();
-            String targetNumber = "7-2*3=1"; // Default value in case of error
-        } catch (AssertionError e) {
-            System.err.println("Assertion failed: " + e.getMessage());
-            targetNumber = "7-2*3=1"; // Default fallback equation
         }
 
-        currentGuess = new StringBuilder("       ");
+        // The guess buffer is reused across games so that simulations do not allocate one per guess
+        if (currentGuess == null) currentGuess = new StringBuilder(EQUATION_LENGTH);
+        currentGuess.setLength(0);
+        currentGuess.append("       ");
         remainingAttempts = MAX_ATTEMPTS;
         gameWon = false;
-        setChanged();
-        notifyObservers("New Equation Loaded");
+        guessCount = 0;
+        gameId = NEXT_GAME_ID.incrementAndGet();
+        if (candidates != null) candidates.reset();
+        constraints.reset();
+        startPending = true;
+        startedAt = System.currentTimeMillis();
+        // Views reset at once, while the start itself waits until the target is final
+        if (events.hasListeners()) events.publish(new GameEvent.GameReset(gameId, startedAt, MAX_ATTEMPTS));
+        if (GameMetrics.ENABLED) {
+            GameMetrics.recordGameStarted();
+            GameMetrics.recordLatency(GameMetrics.Operation.INITIALIZE, System.nanoTime() - start);
+        }
     }
 
     @Override
@@ -48,20 +69,128 @@ public class NumberleModel extends Observable implements INumberleModel {
         assert getRemainingAttempts() > 0 : "No remaining attempts left";
         assert !input.isEmpty() : "Input string cannot be null";
         assert input.length() == 7 : "Input string must be exactly 7 characters long";
+        long start = GameMetrics.ENABLED ? System.nanoTime() : 0;
+        boolean won = false;
+        boolean lost = false;
         if (getRemainingAttempts()>0){
-            currentGuess = new StringBuilder(input);
+            currentGuess.setLength(0);
+            currentGuess.append(input);
             remainingAttempts-=1;
-            setChanged();
-            notifyObservers("remainingAttempts-1");
+            int packedInput = PackedEquation.encode(input);
+            recordGuess(input, packedInput);
             String target = getTargetNumber();
-            if(target.equals(input)){
+            // Packed codes are equal exactly when the equations are; only two unpackable ones need the strings
+            boolean correct = packedInput != PackedEquation.INVALID || packedTarget != PackedEquation.INVALID
+                    ? packedInput == packedTarget : target.equals(input);
+            if(correct){
                 gameWon=true;
-                setChanged();
-                notifyObservers("Game Won");
-                return true;
+                won = true;
+                if (events.hasListeners()) {
+                    events.publish(new GameEvent.GameWon(gameId, System.currentTimeMillis(), guessCount, remainingAttempts));
+                }
+            } else if (remainingAttempts == 0) {
+                lost = true;
+                if (events.hasListeners()) events.publish(new GameEvent.GameLost(gameId, System.currentTimeMillis(), target));
             }
         }
-        return false;
+        if (GameMetrics.ENABLED) {
+            GameMetrics.recordLatency(GameMetrics.Operation.PROCESS, System.nanoTime() - start);
+            if (won) GameMetrics.recordGameWon();
+            else if (lost) GameMetrics.recordGameLost();
+        }
+        return won;
+    }
+
+    // Stamped with the time the game was set up, and sent with the target the game is actually played with
+    private void publishStart() {
+        events.publish(new GameEvent.GameStarted(gameId, startedAt, MAX_ATTEMPTS, targetNumber, playerId));
+    }
+
+    // Id of the current game, new for every initialize
+    public long getGameId() {
+        return gameId;
+    }
+
+    // Who is playing, recorded with every game this model starts
+    public void setPlayerId(String playerId) {
+        this.playerId = playerId;
+    }
+
+    @Override
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    @Override
+    public void setHardMode(boolean hardMode) {
+        this.hardMode = hardMode;
+    }
+
+    @Override
+    public boolean isHardMode() {
+        return hardMode;
+    }
+
+    @Override
+    public HardModeConstraints getHardModeConstraints() {
+        return constraints;
+    }
+
+    @Override
+    public void addListener(GameEventListener listener) {
+        events.subscribe(listener);
+    }
+
+    @Override
+    public void removeListener(GameEventListener listener) {
+        events.unsubscribe(listener);
+    }
+
+    // Remember the guess and its feedback, and narrow the candidates if anyone is following them
+    private void recordGuess(String input, int packedInput) {
+        int pattern = packedInput != PackedEquation.INVALID && packedTarget != PackedEquation.INVALID
+                ? FeedbackEngine.score(packedInput, packedTarget)
+                : FeedbackEngine.score(input, getTargetNumber());
+        guesses[guessCount] = input;
+        patterns[guessCount] = pattern;
+        guessCount++;
+        if (candidates != null) candidates.narrow(input, pattern);
+        constraints.update(input, pattern);
+        // Events are only built when someone is listening
+        if (events.hasListeners()) {
+            if (startPending) publishStart();
+            events.publish(new GameEvent.GuessScored(gameId, System.currentTimeMillis(), input, pattern, remainingAttempts));
+        }
+        startPending = false;
+    }
+
+    // Number of guesses made in the current game
+    public int getGuessCount() {
+        return guessCount;
+    }
+
+    // The guess made at the given turn of the current game
+    public String getGuess(int turn) {
+        assert turn >= 0 && turn < guessCount : "No guess at turn " + turn;
+        return guesses[turn];
+    }
+
+    // Packed feedback (see FeedbackEngine) for the guess made at the given turn
+    public int getPattern(int turn) {
+        assert turn >= 0 && turn < guessCount : "No guess at turn " + turn;
+        return patterns[turn];
+    }
+
+    @Override
+    public CandidateIndex getRemainingCandidates() {
+        if (candidates == null) {
+            // Built lazily so games nobody inspects do not pay for the bitset, then caught up on this game
+            candidates = CandidateIndex.forSharedCorpus();
+            for (int i = 0; i < guessCount; i++) {
+                candidates.narrow(guesses[i], patterns[i]);
+            }
+        }
+        return candidates;
     }
 
     @Override
@@ -98,36 +227,16 @@ public class NumberleModel extends Observable implements INumberleModel {
     @Override
     public int[] matchInput(char[] inputChars){
         assert inputChars != null : "Input characters must not be null";
-        int[] result = new int[7];
-        String target = getTargetNumber();
-        char[] targetChars = target.toCharArray();
-
-        // Used to mark whether a character in the target has been matched to prevent repeated matching
-        boolean[] matched = new boolean[targetChars.length];
-
-        for (int i = 0; i < inputChars.length; i++) {
-            char inputChar = inputChars[i];
-            boolean isMatched = false;
-
-            for (int j = 0; j < targetChars.length; j++) {
-                if (inputChar == targetChars[j]) {
-                    if (i == j) {
-                        result[i] = 0; // The characters and positions match correctly
-                        matched[j] = true;
-                        isMatched = true;
-                        break;
-                    } else if (!matched[j]) {
-                        result[i] = 1; // The character exists, but in the wrong position
-                        matched[j] = true;
-                        isMatched = true;
-                    }
-                }
-            }
-            // The character does not exist
-            if (!isMatched) {
-                result[i] = 2;
-            }
+        long start = GameMetrics.ENABLED ? System.nanoTime() : 0;
+        int[] result = new int[inputChars.length];
+        // Greens are settled before yellows, so repeated characters are scored like Wordle
+        int packedInput = PackedEquation.encode(inputChars);
+        if (packedInput != PackedEquation.INVALID && packedTarget != PackedEquation.INVALID) {
+            FeedbackEngine.score(packedInput, packedTarget, result);
+        } else {
+            FeedbackEngine.score(String.valueOf(inputChars), getTargetNumber(), result);
         }
+        if (GameMetrics.ENABLED) GameMetrics.recordLatency(GameMetrics.Operation.MATCH, System.nanoTime() - start);
         return result;
     }
 
@@ -135,6 +244,7 @@ public class NumberleModel extends Observable implements INumberleModel {
     @Override
     public void setTargetNumber(String newTarget) {
         this.targetNumber = newTarget;
+        this.packedTarget = PackedEquation.encode(newTarget);
     }
 
 }
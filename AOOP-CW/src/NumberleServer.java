@@ -0,0 +1,249 @@
+// NumberleServer.java
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Serves Numberle games over HTTP with the JDK's built-in server, one session per player.
+ *
+ *   POST   /games            start a game, 201 with its id
+ *   GET    /games/{id}       state of the game: guesses, feedback, attempts left
+ *   POST   /games/{id}/guess submit a guess, taken from the body, a "guess" query parameter or {"guess": "..."}
+ *   DELETE /games/{id}       end the game
+ *
+ * Requests are handled on virtual threads when the JVM has them, otherwise on a fixed pool.
+ * Feedback is a string of one digit per character: 0 correct, 1 present, 2 absent.
+ * */
+public class NumberleServer {
+    private static final String PREFIX = "/games";
+    private static final int MAX_BODY = 1024;
+
+    private final GameSessionManager sessions;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public NumberleServer(int port, GameSessionManager sessions) throws IOException {
+        this.sessions = sessions;
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        ExecutorService virtual = VirtualThreads.newPerTaskExecutorOrNull();
+        this.executor = virtual != null ? virtual
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+        server.setExecutor(executor);
+        server.createContext(PREFIX, this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+        sessions.close();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            route(exchange);
+        } catch (RuntimeException e) {
+            send(exchange, 500, error("INTERNAL_ERROR", "Internal server error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        // The context also matches paths such as /gamesX
+        if (path.length() > PREFIX.length() && path.charAt(PREFIX.length()) != '/') {
+            send(exchange, 404, error("NOT_FOUND", "No resource at " + path));
+            return;
+        }
+        String rest = path.length() > PREFIX.length() + 1 ? path.substring(PREFIX.length() + 1) : "";
+        if (rest.isEmpty()) {
+            if (!"POST".equals(method)) {
+                send(exchange, 405, error("METHOD_NOT_ALLOWED", "Use POST to start a game"));
+                return;
+            }
+            createGame(exchange);
+            return;
+        }
+        int slash = rest.indexOf('/');
+        String id = slash < 0 ? rest : rest.substring(0, slash);
+        String action = slash < 0 ? "" : rest.substring(slash + 1);
+        if ("DELETE".equals(method) && action.isEmpty()) {
+            if (sessions.remove(id)) {
+                send(exchange, 204, null);
+            } else {
+                send(exchange, 404, error("NOT_FOUND", "No game with id " + id));
+            }
+            return;
+        }
+        GameSessionManager.GameSession session = sessions.get(id);
+        if (session == null) {
+            send(exchange, 404, error("NOT_FOUND", "No game with id " + id));
+        } else if ("GET".equals(method) && action.isEmpty()) {
+            String body;
+            synchronized (session) {
+                body = state(session);
+            }
+            send(exchange, 200, body);
+        } else if ("POST".equals(method) && "guess".equals(action)) {
+            guess(exchange, session);
+        } else {
+            send(exchange, 405, error("METHOD_NOT_ALLOWED", method + " is not supported on " + path));
+        }
+    }
+
+    private void createGame(HttpExchange exchange) throws IOException {
+        GameSessionManager.GameSession session = sessions.create();
+        if (session == null) {
+            send(exchange, 503, error("TOO_MANY_GAMES", "The server is full, try again later"));
+            return;
+        }
+        String body;
+        synchronized (session) {
+            body = state(session);
+        }
+        exchange.getResponseHeaders().set("Location", PREFIX + "/" + session.getId());
+        send(exchange, 201, body);
+    }
+
+    private void guess(HttpExchange exchange, GameSessionManager.GameSession session) throws IOException {
+        String guess = readGuess(exchange);
+        if (guess == null) {
+            send(exchange, 400, error("EMPTY", ValidationResult.EMPTY.getMessage()));
+            return;
+        }
+        // Validated under the session lock, since hard mode reads the game; each request gets its own validator
+        GuessValidator validator = new GuessValidator();
+        GuessValidator.Verdict verdict;
+        String body = null;
+        synchronized (session) {
+            NumberleModel model = session.getModel();
+            verdict = validator.validate(guess, model);
+            if (verdict.isValid() && !model.isGameOver()) {
+                model.processInput(guess);
+                body = state(session);
+            }
+        }
+        if (!verdict.isValid()) {
+            send(exchange, 400, error(verdict.getResult().name(), verdict.getMessage()));
+            return;
+        }
+        if (body == null) {
+            send(exchange, 409, error("GAME_OVER", "The game is over, start a new one"));
+        } else {
+            send(exchange, 200, body);
+        }
+    }
+
+    // The guess from the query string, a JSON body or a plain body, or null if there is none
+    private static String readGuess(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("guess=")) return parameter.substring(6);
+            }
+        }
+        String body = readBody(exchange.getRequestBody()).trim();
+        if (body.startsWith("{")) {
+            int key = body.indexOf("\"guess\"");
+            if (key < 0) return null;
+            int open = body.indexOf('"', body.indexOf(':', key) + 1);
+            int close = open < 0 ? -1 : body.indexOf('"', open + 1);
+            return close < 0 ? null : body.substring(open + 1, close);
+        }
+        return body.isEmpty() ? null : body;
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        byte[] buffer = new byte[256];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, Math.min(read, MAX_BODY - out.size()));
+            if (out.size() >= MAX_BODY) break;
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    // JSON for the game, the target is only revealed once the game is over
+    private static String state(GameSessionManager.GameSession session) {
+        NumberleModel model = session.getModel();
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"id\":\"").append(session.getId()).append('"');
+        sb.append(",\"remainingAttempts\":").append(model.getRemainingAttempts());
+        sb.append(",\"gameOver\":").append(model.isGameOver());
+        sb.append(",\"gameWon\":").append(model.isGameWon());
+        sb.append(",\"guesses\":[");
+        for (int turn = 0; turn < model.getGuessCount(); turn++) {
+            if (turn > 0) sb.append(',');
+            String guess = model.getGuess(turn);
+            sb.append("{\"guess\":\"").append(guess).append("\",\"feedback\":\"");
+            int pattern = model.getPattern(turn);
+            for (int i = 0; i < guess.length(); i++) {
+                sb.append(FeedbackEngine.statusAt(pattern, i));
+            }
+            sb.append("\"}");
+        }
+        sb.append(']');
+        if (model.isGameOver()) sb.append(",\"target\":\"").append(model.getTargetNumber()).append('"');
+        return sb.append('}').toString();
+    }
+
+    // The message may quote the request URL, so it is fully escaped
+    private static String error(String code, String message) {
+        StringBuilder sb = new StringBuilder(64).append("{\"error\":\"").append(code).append("\",\"message\":");
+        return CLIBatch.appendString(sb, message).append('}').toString();
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Usage: NumberleServer [--port 8080] [--idle-minutes 30] [--max-games 200000]
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        long idleMinutes = 30;
+        int maxGames = 200_000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(value); break;
+                case "--idle-minutes": idleMinutes = Long.parseLong(value); break;
+                case "--max-games": maxGames = Integer.parseInt(value); break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(1);
+            }
+        }
+        NumberleServer server = new NumberleServer(port,
+                new GameSessionManager(maxGames, idleMinutes, TimeUnit.MINUTES, GameJournal.getShared()));
+        server.start();
+        System.out.println("Numberle server listening on port " + server.getPort());
+    }
+}
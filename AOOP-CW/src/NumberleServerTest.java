@@ -0,0 +1,166 @@
+// NumberleServer test.java
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumberleServerTest {
+    private static final String TARGET = "2+3*2=8";
+
+    private GameSessionManager sessions;
+    private NumberleServer server;
+
+    // Status and body of one response
+    private static final class Response {
+        final int status;
+        final String body;
+        final String location;
+
+        Response(int status, String body, String location) {
+            this.status = status;
+            this.body = body;
+            this.location = location;
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sessions = new GameSessionManager(10, 1, TimeUnit.MINUTES);
+        server = new NumberleServer(0, sessions);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private Response request(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection)
+                new URL("http://localhost:" + server.getPort() + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (in != null) {
+            try (InputStream stream = in) {
+                byte[] buffer = new byte[256];
+                int read;
+                while ((read = stream.read(buffer)) > 0) out.write(buffer, 0, read);
+            }
+        }
+        String location = connection.getHeaderField("Location");
+        connection.disconnect();
+        return new Response(status, new String(out.toByteArray(), StandardCharsets.UTF_8), location);
+    }
+
+    // Start a game whose target is known
+    private String newGame() throws IOException {
+        Response created = request("POST", "/games", null);
+        assertEquals(201, created.status, created.body);
+        String id = created.location.substring("/games/".length());
+        GameSessionManager.GameSession session = sessions.get(id);
+        synchronized (session) {
+            session.getModel().setTargetNumber(TARGET);
+        }
+        return id;
+    }
+
+    @Test
+    void testGuessFromQueryString() throws IOException {
+        String id = newGame();
+        // The '+' is percent-encoded like a browser would send it
+        Response response = request("POST", "/games/" + id + "/guess?x=1&guess=4-1*3%3D1", null);
+        assertEquals(200, response.status, response.body);
+        assertTrue(response.body.contains("{\"guess\":\"4-1*3=1\",\"feedback\":\"2220102\"}"), response.body);
+        response = request("POST", "/games/" + id + "/guess?guess=1%2B2%2B3%3D6", null);
+        assertTrue(response.body.contains("\"guess\":\"1+2+3=6\""), response.body);
+    }
+
+    @Test
+    void testGuessFromJsonBody() throws IOException {
+        String id = newGame();
+        Response response = request("POST", "/games/" + id + "/guess", " {\"player\": \"a\", \"guess\" : \"4-1*3=1\"}\n");
+        assertEquals(200, response.status, response.body);
+        assertTrue(response.body.contains("\"remainingAttempts\":5"), response.body);
+        assertTrue(response.body.contains("\"guess\":\"4-1*3=1\""), response.body);
+
+        response = request("POST", "/games/" + id + "/guess", "{\"answer\":\"4-1*3=1\"}");
+        assertEquals(400, response.status, "A JSON body without a guess is empty.");
+        assertTrue(response.body.contains("\"error\":\"EMPTY\""), response.body);
+    }
+
+    @Test
+    void testGuessFromPlainBody() throws IOException {
+        String id = newGame();
+        Response response = request("POST", "/games/" + id + "/guess", TARGET + "\r\n");
+        assertEquals(200, response.status, response.body);
+        assertTrue(response.body.contains("\"gameWon\":true"), response.body);
+        assertTrue(response.body.contains("\"target\":\"" + TARGET + "\""), "Revealed once the game is over.");
+
+        response = request("POST", "/games/" + id + "/guess", "   ");
+        assertEquals(400, response.status);
+        response = request("POST", "/games/" + id + "/guess", "1+1");
+        assertEquals(400, response.status);
+        assertTrue(response.body.contains("\"error\":\"INVALID_LENGTH\""), response.body);
+    }
+
+    @Test
+    void testNoGuessesAfterTheGameIsOver() throws IOException {
+        String id = newGame();
+        assertEquals(200, request("POST", "/games/" + id + "/guess", TARGET).status);
+        Response response = request("POST", "/games/" + id + "/guess", "4-1*3=1");
+        assertEquals(409, response.status);
+        assertTrue(response.body.contains("\"error\":\"GAME_OVER\""), response.body);
+        assertTrue(request("GET", "/games/" + id, null).body.contains("\"remainingAttempts\":5"),
+                "The rejected guess was not played.");
+    }
+
+    @Test
+    void testUnknownAndDeletedGames() throws IOException {
+        assertEquals(404, request("GET", "/games/0", null).status);
+        assertEquals(404, request("POST", "/games/0/guess", TARGET).status);
+        assertEquals(404, request("DELETE", "/games/0", null).status);
+
+        String id = newGame();
+        Response state = request("GET", "/games/" + id, null);
+        assertEquals(200, state.status);
+        assertFalse(state.body.contains(TARGET), "The target is hidden while the game is on.");
+        assertEquals(204, request("DELETE", "/games/" + id, null).status);
+        assertEquals(404, request("GET", "/games/" + id, null).status);
+        assertEquals(405, request("GET", "/games", null).status);
+    }
+
+    @Test
+    void testOnlyGamesIsServed() throws IOException {
+        assertEquals(404, request("POST", "/gamesX", null).status, "The context also matches /gamesX.");
+        assertEquals(404, request("GET", "/gamesX/1", null).status);
+        assertEquals(0, sessions.size(), "No game was started.");
+        assertEquals(201, request("POST", "/games/", null).status);
+    }
+
+    @Test
+    void testErrorsEscapeTheUrl() throws IOException {
+        // The id is decoded from the path, so it can hold quotes, backslashes and control characters
+        Response response = request("GET", "/games/a%22b%5Cc%01", null);
+        assertEquals(404, response.status);
+        assertEquals("{\"error\":\"NOT_FOUND\",\"message\":\"No game with id a\\\"b\\\\c\\u0001\"}", response.body);
+    }
+}
@@ -0,0 +1,213 @@
+// NumberleSimulator.java
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Headless batch runner: plays many games against every corpus entry with a fixed strategy
+ * and reports the win rate, the guess distribution, games per second and per-game latency.
+ *
+ * One task per thread claims batches of games from a shared counter, on a work-stealing pool
+ * (or virtual threads where the JVM has them). Each task owns a Worker holding its own model,
+ * solver and histogram, so nothing is shared between threads except the immutable corpus and
+ * feedback matrix, and nothing is allocated per game beyond the target and the guesses.
+ * */
+public class NumberleSimulator {
+    private static final int BATCH_SIZE = 256;
+
+    // How the simulated player picks a guess
+    public enum Strategy {
+        SOLVER,          // the hint engine's entropy ranking
+        FIRST_CANDIDATE  // the first equation still consistent with the feedback
+    }
+
+    public enum PoolType {
+        FORK_JOIN,
+        VIRTUAL
+    }
+
+    private final Strategy strategy;
+    private final PoolType poolType;
+    private final int threads;
+    private GameJournal journal; // records every simulated game when set
+
+    public NumberleSimulator(Strategy strategy, PoolType poolType, int threads) {
+        this.strategy = strategy;
+        this.poolType = poolType;
+        this.threads = threads;
+    }
+
+    public void setJournal(GameJournal journal) {
+        this.journal = journal;
+    }
+
+    // Everything one thread needs to play games, reused from game to game
+    private final class Worker {
+        final NumberleModel model = new NumberleModel();
+        final NumberleSolver solver = strategy == Strategy.SOLVER
+                ? new NumberleSolver(model.getRemainingCandidates(), FeedbackMatrix.getShared())
+                : null;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final long[] guessCounts = new long[INumberleModel.MAX_ATTEMPTS + 1]; // index 0 counts losses
+
+        Worker() {
+            if (journal != null) model.addListener(journal);
+        }
+
+        void play(String target) {
+            long start = System.nanoTime();
+            model.initialize();
+            model.setTargetNumber(target);
+            boolean won = false;
+            while (!model.isGameOver()) {
+                String guess = nextGuess();
+                if (guess == null) break;
+                won = model.processInput(guess);
+            }
+            latency.record(System.nanoTime() - start);
+            guessCounts[won ? INumberleModel.MAX_ATTEMPTS - model.getRemainingAttempts() : 0]++;
+        }
+
+        private String nextGuess() {
+            if (solver != null) return solver.bestGuess();
+            CandidateIndex candidates = model.getRemainingCandidates();
+            int row = candidates.next(0);
+            return row < 0 ? null : candidates.equationAt(row);
+        }
+    }
+
+    // Play the given number of games, cycling through every entry of the corpus as the target
+    public Report run(long games) throws Exception {
+        EquationCorpus corpus = EquationCorpus.getInstance();
+        if (corpus.isEmpty()) throw new IllegalStateException("The corpus is empty");
+        AtomicLong nextGame = new AtomicLong();
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Worker());
+        }
+        ExecutorService executor = createExecutor();
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (Worker worker : workers) {
+                // Each task keeps claiming batches until none are left, so fast threads take more
+                running.add(executor.submit(() -> {
+                    long from;
+                    while ((from = nextGame.getAndAdd(BATCH_SIZE)) < games) {
+                        long to = Math.min(games, from + BATCH_SIZE);
+                        for (long game = from; game < to; game++) {
+                            worker.play(corpus.get((int) (game % corpus.size())));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> task : running) {
+                task.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Report report = new Report(elapsed);
+        for (Worker worker : workers) {
+            report.latency.merge(worker.latency);
+            for (int i = 0; i < worker.guessCounts.length; i++) {
+                report.guessCounts[i] += worker.guessCounts[i];
+            }
+        }
+        return report;
+    }
+
+    private ExecutorService createExecutor() {
+        if (poolType == PoolType.VIRTUAL) {
+            ExecutorService virtual = VirtualThreads.newPerTaskExecutorOrNull();
+            if (virtual != null) return virtual;
+            System.err.println("Virtual threads are not available on this JVM, using a work-stealing pool.");
+        }
+        return new ForkJoinPool(threads);
+    }
+
+    // Aggregated results of one run
+    public static final class Report {
+        final long elapsedNanos;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final long[] guessCounts = new long[INumberleModel.MAX_ATTEMPTS + 1];
+
+        Report(long elapsedNanos) {
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getGames() {
+            return latency.getCount();
+        }
+
+        public double getWinRate() {
+            long games = getGames();
+            return games == 0 ? 0 : (double) (games - guessCounts[0]) / games;
+        }
+
+        public double getGamesPerSecond() {
+            return getGames() / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            long games = getGames();
+            sb.append(String.format(Locale.ROOT, "Games: %d in %.2f s (%.0f games/s)%n",
+                    games, elapsedNanos / 1e9, getGamesPerSecond()));
+            sb.append(String.format(Locale.ROOT, "Win rate: %.2f%%%n", getWinRate() * 100));
+            sb.append("Guess distribution:").append(System.lineSeparator());
+            for (int i = 1; i < guessCounts.length; i++) {
+                sb.append(String.format(Locale.ROOT, "  %d: %d%n", i, guessCounts[i]));
+            }
+            sb.append(String.format(Locale.ROOT, "  lost: %d%n", guessCounts[0]));
+            sb.append(String.format(Locale.ROOT,
+                    "Latency per game (us): mean %.1f, p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                    latency.getMean() / 1e3, latency.percentile(50) / 1e3, latency.percentile(90) / 1e3,
+                    latency.percentile(99) / 1e3, latency.percentile(99.9) / 1e3, latency.getMax() / 1e3));
+            return sb.toString();
+        }
+    }
+
+    // Usage: NumberleSimulator [--games N] [--threads T] [--strategy solver|first] [--pool forkjoin|virtual] [--journal dir]
+    public static void main(String[] args) throws Exception {
+        long games = EquationCorpus.getInstance().size();
+        int threads = Runtime.getRuntime().availableProcessors();
+        Strategy strategy = Strategy.SOLVER;
+        PoolType pool = PoolType.FORK_JOIN;
+        String journalDirectory = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--games": games = Long.parseLong(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--strategy": strategy = "first".equalsIgnoreCase(value) ? Strategy.FIRST_CANDIDATE : Strategy.SOLVER; break;
+                case "--pool": pool = "virtual".equalsIgnoreCase(value) ? PoolType.VIRTUAL : PoolType.FORK_JOIN; break;
+                case "--journal": journalDirectory = value; break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(1);
+            }
+        }
+        System.out.println("Simulating " + games + " games with strategy " + strategy + " on " + pool
+                + " with " + threads + " threads");
+        NumberleSimulator simulator = new NumberleSimulator(strategy, pool, threads);
+        GameJournal journal = journalDirectory == null ? null : GameJournal.open(Paths.get(journalDirectory));
+        simulator.setJournal(journal);
+        System.out.print(simulator.run(games));
+        if (journal != null) {
+            journal.close();
+            System.out.println("Journal: " + journal.getWrittenCount() + " events written, "
+                    + journal.getDroppedCount() + " dropped");
+        }
+    }
+}
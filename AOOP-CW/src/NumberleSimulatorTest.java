@@ -0,0 +1,48 @@
+// NumberleSimulator test.java
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumberleSimulatorTest {
+    // Targets cycle through the corpus from the first entry, so a run is the same every time
+    private static final int GAMES = 40;
+
+    // The same games played one after another on a single model, the simulator's guess distribution
+    private static long[] playInOrder() {
+        EquationCorpus corpus = EquationCorpus.getInstance();
+        NumberleModel model = new NumberleModel();
+        NumberleSolver solver = new NumberleSolver(model.getRemainingCandidates(), null);
+        long[] counts = new long[INumberleModel.MAX_ATTEMPTS + 1];
+        for (int game = 0; game < GAMES; game++) {
+            model.initialize();
+            model.setTargetNumber(corpus.get(game % corpus.size()));
+            boolean won = false;
+            while (!model.isGameOver()) {
+                won = model.processInput(solver.bestGuess());
+            }
+            counts[won ? INumberleModel.MAX_ATTEMPTS - model.getRemainingAttempts() : 0]++;
+        }
+        return counts;
+    }
+
+    @Test
+    void testSolverRunIsDeterministic() throws Exception {
+        long[] expected = playInOrder();
+        long wins = GAMES - expected[0];
+        assertTrue(wins > 0, "The solver wins some of the games.");
+
+        NumberleSimulator.Report forkJoin = new NumberleSimulator(
+                NumberleSimulator.Strategy.SOLVER, NumberleSimulator.PoolType.FORK_JOIN, 3).run(GAMES);
+        assertEquals(GAMES, forkJoin.getGames());
+        assertEquals((double) wins / GAMES, forkJoin.getWinRate(), 1e-12);
+        assertArrayEquals(expected, forkJoin.guessCounts, "Guesses per game " + Arrays.toString(expected));
+
+        NumberleSimulator.Report virtual = new NumberleSimulator(
+                NumberleSimulator.Strategy.SOLVER, NumberleSimulator.PoolType.VIRTUAL, 3).run(GAMES);
+        assertEquals(GAMES, virtual.getGames());
+        assertArrayEquals(forkJoin.guessCounts, virtual.guessCounts, "Both pools play the same games alike.");
+    }
+}
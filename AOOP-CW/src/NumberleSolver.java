@@ -0,0 +1,216 @@
+// NumberleSolver.java
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/*
+ * Hint engine: suggests the guess whose feedback is expected to tell the player the most (highest entropy)
+ * about the corpus entries still consistent with the feedback seen so far.
+ * Those entries are a CandidateIndex: normally the model's own, which processInput narrows, so there is
+ * one copy of the set per game; a solver built on a corpus owns one and update() narrows it.
+ * Equations are held as rows of ASCII bytes and the candidates are listed as an int[] of row numbers
+ * once per hint, so ranking never builds strings or maps. Guesses are ranked in parallel.
+ * One solver follows one game at a time and is not thread-safe.
+ * */
+public class NumberleSolver {
+    // Upper bound on guess x candidate scorings per hint, keeps a hint well under 100 ms
+    private static final long SCORING_BUDGET = 2_000_000L;
+
+    private final int length;
+    private final int size;
+    private final byte[] symbols;      // row i is symbols[i * length, (i + 1) * length)
+    private final CandidateIndex index; // rows still consistent with every guess
+    private final int[] candidates;    // the same rows listed in order, refreshed by every hint
+    private int candidateCount;
+    private final FeedbackMatrix matrix;
+    private final ThreadLocal<int[]> patternCounts;
+    private String openingGuess; // the first hint is the same every game, so it is computed once
+
+    // Only entries of the given length take part, anything else in the corpus is ignored
+    public NumberleSolver(EquationCorpus corpus, int length) {
+        this(corpus, length, null);
+    }
+
+    // With a matrix, guesses from the corpus are looked up instead of scored
+    public NumberleSolver(EquationCorpus corpus, int length, FeedbackMatrix matrix) {
+        this(new CandidateIndex(corpus, length), matrix);
+    }
+
+    // Follows candidates that someone else narrows, such as INumberleModel.getRemainingCandidates()
+    public NumberleSolver(CandidateIndex index, FeedbackMatrix matrix) {
+        assert matrix == null || matrix.getLength() == index.length() : "Matrix was built for another equation length";
+        this.length = index.length();
+        this.symbols = index.symbols();
+        this.size = index.rows();
+        this.index = index;
+        this.matrix = matrix;
+        this.candidates = new int[size];
+        int patterns = FeedbackEngine.patternCount(length);
+        this.patternCounts = ThreadLocal.withInitial(() -> new int[patterns]);
+    }
+
+    // Start over with every entry as a candidate; a model resets its own index with every new game
+    public void reset() {
+        index.reset();
+    }
+
+    // Drop every candidate that would not have produced this pattern for this guess; a model's index
+    // is already narrowed by processInput
+    public void update(CharSequence guess, int pattern) {
+        assert guess.length() == length : "Guess must be " + length + " characters long";
+        index.narrow(guess, pattern);
+    }
+
+    public int getCandidateCount() {
+        return index.count();
+    }
+
+    // The remaining candidates in corpus order, for tests
+    List<String> getCandidates() {
+        List<String> list = new ArrayList<>(index.count());
+        for (int row = index.next(0); row >= 0; row = index.next(row + 1)) {
+            list.add(rowToString(row));
+        }
+        return list;
+    }
+
+    // The suggested next guess, or null when no entry fits the feedback any more
+    public String bestGuess() {
+        return bestGuess(null);
+    }
+
+    // Same as bestGuess(), but only suggests guesses the hard mode constraints allow; null constraints allow any
+    public String bestGuess(HardModeConstraints constraints) {
+        listCandidates();
+        if (candidateCount == 0) return null;
+        // Candidates agree with all the feedback, so hard mode always allows them
+        if (candidateCount <= 2) return rowToString(candidates[0]);
+        if (candidateCount == size) {
+            if (openingGuess == null) openingGuess = rankGuesses(null);
+            if (constraints == null || constraints.check(openingGuess).isValid()) return openingGuess;
+        }
+        return rankGuesses(constraints);
+    }
+
+    // Score the guess pool by entropy in parallel and return the best one
+    private String rankGuesses(HardModeConstraints constraints) {
+        // The rows that may be guessed: the whole corpus, or in hard mode those the constraints allow
+        int[] rows = constraints == null ? null : allowedRows(constraints);
+        int rowCount = rows == null ? size : rows.length;
+        // Rank every such row when it is cheap enough, otherwise only (a spread of) the candidates
+        int[] pool;
+        int poolSize;
+        int stride;
+        if ((long) rowCount * candidateCount <= SCORING_BUDGET) {
+            pool = rows;
+            poolSize = rowCount;
+            stride = 1;
+        } else {
+            pool = candidates;
+            poolSize = (int) Math.min(candidateCount, Math.max(1, SCORING_BUDGET / candidateCount));
+            stride = candidateCount / poolSize;
+        }
+        double[] scores = new double[poolSize];
+        IntStream.range(0, poolSize).parallel().forEach(i -> {
+            int row = pool == null ? i : pool[i * stride];
+            scores[i] = entropy(row);
+        });
+
+        int best = -1;
+        double bestScore = -1;
+        for (int i = 0; i < poolSize; i++) {
+            int row = pool == null ? i : pool[i * stride];
+            // Prefer a guess that could still be the answer when the information is the same
+            double score = scores[i] + (isCandidate(row) ? 1e-9 : 0);
+            if (score > bestScore) {
+                bestScore = score;
+                best = row;
+            }
+        }
+        return rowToString(best);
+    }
+
+    // Every row that passes the hard mode check, which includes every candidate
+    private int[] allowedRows(HardModeConstraints constraints) {
+        int[] rows = new int[size];
+        int count = 0;
+        RowSequence row = new RowSequence();
+        for (int i = 0; i < size; i++) {
+            row.offset = i * length;
+            if (constraints.check(row).isValid()) rows[count++] = i;
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    // One row of symbols as a CharSequence, moved from row to row without copying
+    private final class RowSequence implements CharSequence {
+        int offset;
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) symbols[offset + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return rowToString(offset / length);
+        }
+    }
+
+    // Expected information (in bits) from guessing this row, given the current candidates
+    private double entropy(int guessRow) {
+        int[] counts = patternCounts.get();
+        if (matrix != null) {
+            for (int i = 0; i < candidateCount; i++) {
+                counts[matrix.pattern(guessRow, candidates[i])]++;
+            }
+        } else {
+            int guessOffset = guessRow * length;
+            for (int i = 0; i < candidateCount; i++) {
+                counts[FeedbackEngine.score(symbols, guessOffset, symbols, candidates[i] * length, length)]++;
+            }
+        }
+        // Sum c*log(c) over the patterns that occurred, clearing them for the next call
+        double sum = 0;
+        for (int pattern = 0; pattern < counts.length; pattern++) {
+            int c = counts[pattern];
+            if (c > 0) {
+                sum += c * Math.log(c);
+                counts[pattern] = 0;
+            }
+        }
+        return (Math.log(candidateCount) - sum / candidateCount) / Math.log(2);
+    }
+
+    private boolean isCandidate(int row) {
+        return index.contains(row);
+    }
+
+    // Copy the index's rows into candidates, for the ranking loops
+    private void listCandidates() {
+        int count = 0;
+        for (int row = index.next(0); row >= 0; row = index.next(row + 1)) {
+            candidates[count++] = row;
+        }
+        candidateCount = count;
+    }
+
+    private String rowToString(int row) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) symbols[row * length + i];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,187 @@
+// NumberleSolver test.java
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumberleSolverTest {
+    @TempDir
+    Path directory;
+
+    private List<String> equations;
+    private EquationCorpus corpus;
+
+    // Every equation of length 5, small enough for the solver to rank the whole corpus
+    @BeforeEach
+    void setUp() throws IOException {
+        equations = new ArrayList<>();
+        // The generator calls back from several threads
+        new EquationGenerator(5, false).generate(equation -> {
+            synchronized (equations) {
+                equations.add(equation);
+            }
+        });
+        Collections.sort(equations);
+        corpus = corpus("equations.txt", equations);
+    }
+
+    private EquationCorpus corpus(String name, List<String> rows) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, rows, StandardCharsets.US_ASCII);
+        return EquationCorpus.load(file);
+    }
+
+    private FeedbackMatrix matrix() throws IOException {
+        Path file = directory.resolve(FeedbackMatrix.FILE_NAME);
+        FeedbackMatrix.build(corpus, 5, file);
+        return FeedbackMatrix.open(corpus, 5, file);
+    }
+
+    // Expected information of a guess, counted with a map rather than the solver's arrays
+    private static double entropy(String guess, List<String> candidates) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (String candidate : candidates) {
+            counts.merge(FeedbackEngine.score(guess, candidate), 1, Integer::sum);
+        }
+        double bits = 0;
+        for (int count : counts.values()) {
+            double p = (double) count / candidates.size();
+            bits -= p * Math.log(p) / Math.log(2);
+        }
+        return bits;
+    }
+
+    private static double bestEntropy(List<String> guesses, List<String> candidates) {
+        double best = 0;
+        for (String guess : guesses) {
+            best = Math.max(best, entropy(guess, candidates));
+        }
+        return best;
+    }
+
+    private static List<String> consistent(List<String> candidates, String guess, int pattern) {
+        List<String> kept = new ArrayList<>();
+        for (String candidate : candidates) {
+            if (FeedbackEngine.score(guess, candidate) == pattern) kept.add(candidate);
+        }
+        return kept;
+    }
+
+    @Test
+    void testBestGuessHasTheBestSplit() throws IOException {
+        NumberleSolver solver = new NumberleSolver(corpus, 5);
+        NumberleSolver withMatrix = new NumberleSolver(corpus, 5, matrix());
+        List<String> candidates = equations;
+        String target = equations.get(equations.size() / 3);
+        while (candidates.size() > 2) {
+            double best = bestEntropy(equations, candidates);
+            String guess = solver.bestGuess();
+            assertEquals(best, entropy(guess, candidates), 1e-9, guess + " splits " + candidates.size() + " candidates");
+            assertEquals(guess, withMatrix.bestGuess(), "The matrix only changes how the split is counted.");
+
+            int pattern = FeedbackEngine.score(guess, target);
+            solver.update(guess, pattern);
+            withMatrix.update(guess, pattern);
+            candidates = consistent(candidates, guess, pattern);
+        }
+    }
+
+    @Test
+    void testBestGuessOnASmallCorpus() throws IOException {
+        // 5-2=3 tells all six apart, no other entry does
+        List<String> rows = new ArrayList<>();
+        Collections.addAll(rows, "1+5=6", "3*0=0", "5-2=3", "7-3=4", "9+0=9", "9-9=0");
+        NumberleSolver solver = new NumberleSolver(corpus("small.txt", rows), 5);
+        assertEquals(Math.log(rows.size()) / Math.log(2), entropy("5-2=3", rows), 1e-9);
+        for (String row : rows) {
+            if (!row.equals("5-2=3")) assertTrue(entropy(row, rows) < entropy("5-2=3", rows), row);
+        }
+        assertEquals("5-2=3", solver.bestGuess());
+    }
+
+    @Test
+    void testHardModeHintsCanBePlayed() {
+        int filtered = 0;
+        for (int t = 0; t < equations.size(); t += 61) {
+            String target = equations.get(t);
+            NumberleSolver solver = new NumberleSolver(corpus, 5);
+            HardModeConstraints constraints = new HardModeConstraints();
+            List<String> candidates = equations;
+            while (candidates.size() > 1) {
+                String guess = solver.bestGuess(constraints);
+                assertEquals(ValidationResult.VALID, constraints.check(guess), guess + " is allowed in hard mode");
+                List<String> allowed = new ArrayList<>();
+                for (String row : equations) {
+                    if (constraints.check(row).isValid()) allowed.add(row);
+                }
+                if (candidates.size() > 2) {
+                    assertEquals(bestEntropy(allowed, candidates), entropy(guess, candidates), 1e-9,
+                            "The best split among the allowed guesses.");
+                }
+                if (!constraints.check(solver.bestGuess()).isValid()) filtered++;
+
+                int pattern = FeedbackEngine.score(guess, target);
+                solver.update(guess, pattern);
+                constraints.update(guess, pattern);
+                candidates = consistent(candidates, guess, pattern);
+            }
+        }
+        assertTrue(filtered > 0, "Without hard mode some hints would have been rejected.");
+    }
+
+    @Test
+    void testUpdateKeepsExactlyTheConsistentCandidates() throws IOException {
+        FeedbackMatrix matrix = matrix();
+        for (int t = 0; t < equations.size(); t += 97) {
+            String target = equations.get(t);
+            NumberleSolver solver = new NumberleSolver(corpus, 5);
+            NumberleSolver withMatrix = new NumberleSolver(corpus, 5, matrix);
+            List<String> expected = equations;
+            for (int attempt = 0; attempt < INumberleModel.MAX_ATTEMPTS; attempt++) {
+                String guess = solver.bestGuess();
+                int pattern = FeedbackEngine.score(guess, target);
+                solver.update(guess, pattern);
+                withMatrix.update(guess, pattern);
+                expected = consistent(expected, guess, pattern);
+                assertEquals(expected, solver.getCandidates(), guess + " against " + target);
+                assertEquals(expected, withMatrix.getCandidates(), guess + " against " + target + " with the matrix");
+                assertTrue(expected.contains(target), "The target is always kept.");
+                if (pattern == FeedbackEngine.ALL_CORRECT) break;
+            }
+            assertEquals(Collections.singletonList(target), solver.getCandidates(), target + " is found.");
+        }
+    }
+
+    @Test
+    void testFollowsTheModelsCandidates() {
+        NumberleModel model = new NumberleModel();
+        model.initialize();
+        model.setTargetNumber("2+3*2=8");
+        NumberleSolver solver = new NumberleSolver(model.getRemainingCandidates(), null);
+        NumberleSolver own = new NumberleSolver(EquationCorpus.getInstance(), INumberleModel.EQUATION_LENGTH);
+        while (!model.isGameOver()) {
+            String guess = solver.bestGuess();
+            assertEquals(own.bestGuess(), guess, "Same candidates, same hint.");
+            model.processInput(guess);
+            own.update(guess, FeedbackEngine.score(guess, "2+3*2=8"));
+            assertEquals(own.getCandidates(), solver.getCandidates(), "Narrowed by the model alone.");
+        }
+        assertTrue(model.isGameWon());
+
+        model.startNewGame();
+        own.reset();
+        assertEquals(own.getCandidateCount(), solver.getCandidateCount(), "A new game resets the model's candidates.");
+    }
+}
@@ -1,5 +1,6 @@
 // Numberle test.java
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
@@ -16,6 +17,11 @@ class NumberleTest {
         NumberleView view = new NumberleView(model, controller);
     }
 
+    @AfterEach
+    void tearDown() {
+        controller.close();
+    }
+
     @Test
     void testCorrectGuess() {
         // Set the target number directly for the purpose of testing
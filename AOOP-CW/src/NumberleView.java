@@ -2,11 +2,12 @@
 import javax.swing.*;
 import java.awt.*;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Observer;
 
 
-public class NumberleView implements Observer {
+public class NumberleView {
+    private static final Color KEY_COLOR = new Color(118, 159, 205);
     private final INumberleModel model;
     private final NumberleController controller;
     // main frame
@@ -15,8 +16,9 @@ public class NumberleView implements Observer {
     private final JTextField inputTextField = new JTextField(3);
     // label of remaining attempts
     private final JLabel attemptsLabel = new JLabel("Attempts remaining: ");
-    private final JLabel[][] gridLabels = new JLabel[6][7]; // grid
+    private final GameBoard board = new GameBoard(6, 7); // grid
     private final Map<Character, JButton> buttonMap = new HashMap<>(); // store all the button
+    private final KeyboardState keyboard = new KeyboardState(); // best status of every key so far
     private JButton newGameButton;  // new game button
 
     public NumberleView(INumberleModel model, NumberleController controller) {
@@ -24,11 +26,11 @@ public class NumberleView implements Observer {
         this.model = model;
         this.controller.startNewGame();
 
-        // set view to observer
-        ((NumberleModel)this.model).addObserver(this);
+        // Model events arrive on the thread that fired them and are batched to the EDT once per frame
+        this.model.addListener(new SwingEventCoalescer(this::update));
         initializeFrame();
         this.controller.setView(this);
-        update((NumberleModel)this.model, null);
+        attemptsLabel.setText("Attempts remaining: " + controller.getRemainingAttempts());
     }
 
     public void initializeFrame() {
@@ -46,7 +48,7 @@ public class NumberleView implements Observer {
         frame.add(keyboardPanel, BorderLayout.CENTER);
 
         // grid panel
-        JPanel gridPanel = createGridPanel();
+        JComponent gridPanel = createGridPanel();
         frame.add(gridPanel, BorderLayout.NORTH);
         frame.setVisible(true);
     }
@@ -111,18 +113,37 @@ public class NumberleView implements Observer {
         // Submit button
         JButton submitButton = new JButton("Submit");
         setupButtonStyle(submitButton);
+        // Scored off the EDT, a second click while the guess is in flight is ignored
         submitButton.addActionListener(e -> {
-            controller.processInput(inputTextField.getText());
+            controller.submitInput(inputTextField.getText());
         });
         buttonPanel.add(submitButton);
 
+        // Hint button, fills the input with the suggested next guess
+        JButton hintButton = new JButton("Hint");
+        setupButtonStyle(hintButton);
+        hintButton.addActionListener(e -> controller.requestHint(hint -> {
+            if (hint == null) {
+                displayError("No hint available.");
+            } else {
+                inputTextField.setText(hint);
+            }
+        }));
+        buttonPanel.add(hintButton);
+
         // New Game button
         newGameButton = new JButton("New Game");
         setupButtonStyle(newGameButton);
         newGameButton.setVisible(false);  // Initially invisible
-        newGameButton.addActionListener(e -> showGameEndMessage());
+        newGameButton.addActionListener(e -> showGameEnd(false, false, null));
         buttonPanel.add(newGameButton);
 
+        // Hard mode, every later guess must keep the greens and use the yellows
+        JCheckBox hardModeBox = new JCheckBox("Hard mode", controller.isHardMode());
+        hardModeBox.setBackground(Color.WHITE);
+        hardModeBox.addActionListener(e -> controller.setHardMode(hardModeBox.isSelected()));
+        buttonPanel.add(hardModeBox);
+
         inputPanel.add(Box.createVerticalStrut(10));
         inputPanel.add(buttonPanel);
 
@@ -147,35 +168,22 @@ public class NumberleView implements Observer {
         return keyboardPanel;
     }
 
-    private JPanel createGridPanel() {
-        JPanel gridPanel = new JPanel(new GridLayout(6, 7, 5, 5));
-        gridPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        gridPanel.setBackground(Color.LIGHT_GRAY);
-        for (int i = 0; i < 6; i++) {
-            for (int j = 0; j < 7; j++) {
-                gridLabels[i][j] = new JLabel(" ", SwingConstants.CENTER);
-                gridLabels[i][j].setBorder(BorderFactory.createLineBorder(Color.BLACK));
-                gridLabels[i][j].setOpaque(true);
-                gridLabels[i][j].setBackground(Color.WHITE);
-                gridPanel.add(gridLabels[i][j]);
-            }
-        }
-        return gridPanel;
+    private JComponent createGridPanel() {
+        board.setAnimated(true);
+        return board;
     }
 
     private void setupButtonStyle(JButton button) {
         button.setAlignmentX(Component.CENTER_ALIGNMENT);
-        button.setBackground(new Color(118, 159, 205));
+        button.setBackground(KEY_COLOR);
         button.setForeground(Color.WHITE);
         button.setFont(new Font("Arial", Font.BOLD, 14));
     }
 
-    @Override
-    // update remaining attempts and grid
-    public void update(java.util.Observable o, Object arg) {
-        if (o instanceof NumberleModel) {
-            attemptsLabel.setText("Attempts remaining: " + controller.getRemainingAttempts());
-        }
+    // update remaining attempts, only the latest event of a batch matters
+    private void update(List<GameEvent> events) {
+        GameEvent latest = events.get(events.size() - 1);
+        attemptsLabel.setText("Attempts remaining: " + latest.getRemainingAttempts());
     }
 
     public void showNewGameButton() {
@@ -183,50 +191,41 @@ public class NumberleView implements Observer {
     }
 
     public void showGameEndMessage() {
-        if (controller.isGameWon()) {
-            JOptionPane.showMessageDialog(frame, "Congratulations! You've guessed the equation correctly.", "Game Over", JOptionPane.INFORMATION_MESSAGE);
-        } else if (controller.isGameOver()) {
-            JOptionPane.showMessageDialog(frame, "Game Over! You've run out of attempts.", "Game Over", JOptionPane.WARNING_MESSAGE);
+        boolean won = controller.isGameWon();
+        boolean over = controller.isGameOver();
+        showGameEnd(won, over, won || over ? controller.getStatistics() : null);
+    }
+
+    // Announce the result if the game is over, then clear the board and start the next game off the EDT
+    public void showGameEnd(boolean won, boolean over, String statistics) {
+        if (won) {
+            JOptionPane.showMessageDialog(frame, withStatistics("Congratulations! You've guessed the equation correctly.", statistics), "Game Over", JOptionPane.INFORMATION_MESSAGE);
+        } else if (over) {
+            JOptionPane.showMessageDialog(frame, withStatistics("Game Over! You've run out of attempts.", statistics), "Game Over", JOptionPane.WARNING_MESSAGE);
         }
         // Clear grid display
-        for (JLabel[] row : gridLabels) {
-            for (JLabel label : row) {
-                label.setText(" ");
-                label.setBackground(Color.WHITE);
-                label.setBorder(BorderFactory.createLineBorder(Color.BLACK));
-            }
-        }
-        // Reset keyboard buttons
-        for (Map.Entry<Character, JButton> entry : buttonMap.entrySet()) {
-            JButton button = entry.getValue();
-            button.setBackground(new Color(118, 159, 205));
-            button.setEnabled(true); // Enable button if it was disabled
-        }
+        board.clear();
+        // Reset only the keyboard buttons that were colored
+        updateKeys(keyboard.reset());
         clearInput();
         newGameButton.setVisible(false);  // invisible
-        controller.startNewGame();
+        controller.startNewGameAsync();
+    }
+
+    // The end-of-game message followed by the player's statistics, when games are recorded
+    private Object withStatistics(String message, String statistics) {
+        if (statistics == null) return message;
+        JTextArea area = new JTextArea(statistics);
+        area.setEditable(false);
+        area.setOpaque(false);
+        area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        return new Object[]{message, area};
     }
 
     // Used to update the characters and their colors in the grid at the specified row
-    public void updateGridRow(int row, int[] matchResults, StringBuilder currentGuess) {
+    public void updateGridRow(int row, int[] matchResults, CharSequence currentGuess) {
         if (row < 0 || row >= 6) return;
-        for (int i = 0; i < 7; i++) {
-            gridLabels[row][i].setText(String.valueOf(currentGuess.charAt(i)));
-            switch (matchResults[i]) {
-                case 0:
-                    gridLabels[row][i].setBackground(Color.GREEN); // Correct position
-                    break;
-                case 1:
-                    gridLabels[row][i].setBackground(Color.ORANGE); // Correct character, wrong position
-                    break;
-                case 2:
-                    gridLabels[row][i].setBackground(Color.GRAY); // Incorrect character
-                    break;
-                default:
-                    gridLabels[row][i].setBackground(Color.WHITE);
-                    break;
-            }
-        }
+        board.setRow(row, currentGuess, matchResults);
         clearInput();
     }
 
@@ -236,26 +235,38 @@ public class NumberleView implements Observer {
         assert matchResults != null : "matchResults is null";
         assert currentGuess.length() == 7 : "currentGuess must be 7 characters long";
         assert matchResults.length == 7 : "matchResults must have 7 elements";
-        for (int i = 0; i < currentGuess.length(); i++) {
-            char c = currentGuess.charAt(i);
-            JButton button = buttonMap.get(c);
-            if (button != null) {
-                switch (matchResults[i]) {
-                    case 0:  // Correct position
-                        button.setBackground(Color.GREEN);
-                        break;
-                    case 1:  // Wrong position
-                        button.setBackground(Color.ORANGE);
-                        break;
-                    case 2:  // Incorrect
-                        button.setBackground(Color.GRAY);
-                        // button.setEnabled(false);  // Disable the button if the character is incorrect
-                        break;
-                }
+        updateViewWithMatchResults(matchResults, currentGuess, 6 - model.getRemainingAttempts()-1);
+    }
+
+    // Same, for a guess scored off the EDT: the row comes with the results instead of from the model
+    public void updateViewWithMatchResults(int[] matchResults, CharSequence guess, int row) {
+        // Keys only ever improve, so only the ones that did are repainted
+        updateKeys(keyboard.apply(guess, FeedbackEngine.encode(matchResults)));
+        updateGridRow(row, matchResults, guess);
+    }
+
+    // Set the color of every key whose bit is set in the mask of symbol codes
+    private void updateKeys(int changed) {
+        while (changed != 0) {
+            int code = Integer.numberOfTrailingZeros(changed);
+            changed &= changed - 1;
+            JButton button = buttonMap.get(EquationAlphabet.symbolAt(code));
+            if (button == null) continue;
+            switch (keyboard.statusAt(code)) {
+                case 0:  // Correct position
+                    button.setBackground(Color.GREEN);
+                    break;
+                case 1:  // Wrong position
+                    button.setBackground(Color.ORANGE);
+                    break;
+                case 2:  // Incorrect
+                    button.setBackground(Color.GRAY);
+                    break;
+                default:
+                    button.setBackground(KEY_COLOR);
+                    break;
             }
         }
-        int row = 6 - model.getRemainingAttempts()-1;
-        updateGridRow(row, matchResults, currentGuess);
     }
 
     // Clear the contents of the input text field
@@ -0,0 +1,86 @@
+// PackedEquation.java
+
+/*
+ * An equation of up to 7 symbols packed into one int, 4 bits per symbol (EquationAlphabet codes).
+ * Symbol i sits in bits 4i..4i+3 and the length in the top 4 bits, so equations of different
+ * lengths never share a code and two equations are equal exactly when their ints are.
+ * Anything that does not fit (longer input, brackets, unknown characters) encodes to INVALID.
+ * */
+public final class PackedEquation {
+    public static final int MAX_LENGTH = 7;
+    public static final int INVALID = -1; // length nibble 15, never produced by encode
+    private static final int LENGTH_SHIFT = 28;
+    private static final int SYMBOLS_MASK = (1 << LENGTH_SHIFT) - 1;
+
+    private PackedEquation() {
+    }
+
+    public static int encode(CharSequence equation) {
+        int length = equation.length();
+        if (length > MAX_LENGTH) return INVALID;
+        int packed = length << LENGTH_SHIFT;
+        for (int i = 0; i < length; i++) {
+            int code = EquationAlphabet.indexOf(equation.charAt(i));
+            if (code == EquationAlphabet.OTHER) return INVALID;
+            packed |= code << (i << 2);
+        }
+        return packed;
+    }
+
+    public static int encode(char[] equation) {
+        int length = equation.length;
+        if (length > MAX_LENGTH) return INVALID;
+        int packed = length << LENGTH_SHIFT;
+        for (int i = 0; i < length; i++) {
+            int code = EquationAlphabet.indexOf(equation[i]);
+            if (code == EquationAlphabet.OTHER) return INVALID;
+            packed |= code << (i << 2);
+        }
+        return packed;
+    }
+
+    // Encode ASCII bytes, e.g. a row of EquationCorpus.rowsOfLength
+    public static int encode(byte[] equation, int offset, int length) {
+        if (length > MAX_LENGTH) return INVALID;
+        int packed = length << LENGTH_SHIFT;
+        for (int i = 0; i < length; i++) {
+            int code = EquationAlphabet.indexOf((char) (equation[offset + i] & 0xFF));
+            if (code == EquationAlphabet.OTHER) return INVALID;
+            packed |= code << (i << 2);
+        }
+        return packed;
+    }
+
+    public static String decode(int packed) {
+        assert packed != INVALID : "Cannot decode an invalid equation";
+        char[] chars = new char[length(packed)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = EquationAlphabet.symbolAt(codeAt(packed, i));
+        }
+        return new String(chars);
+    }
+
+    public static int length(int packed) {
+        return packed >>> LENGTH_SHIFT;
+    }
+
+    // EquationAlphabet code of the symbol at the position
+    public static int codeAt(int packed, int position) {
+        return (packed >>> (position << 2)) & 0xF;
+    }
+
+    public static char charAt(int packed, int position) {
+        return EquationAlphabet.symbolAt(codeAt(packed, position));
+    }
+
+    // The symbols without the length, for tables of equations that all have the same length
+    public static int symbols(int packed) {
+        return packed & SYMBOLS_MASK;
+    }
+
+    // Well-mixed hash for open-addressing tables, packed codes themselves cluster in the low bits
+    public static int hash(int packed) {
+        int h = packed * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,37 @@
+// PackedEquation test.java
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedEquationTest {
+
+    @Test
+    void testRoundTrip() {
+        int packed = PackedEquation.encode("12+2=14");
+        assertEquals(7, PackedEquation.length(packed));
+        assertEquals('+', PackedEquation.charAt(packed, 2));
+        assertEquals("12+2=14", PackedEquation.decode(packed), "Decoding must give back the original equation.");
+        assertEquals(packed, PackedEquation.encode("12+2=14".toCharArray()));
+    }
+
+    @Test
+    void testUnpackableInput() {
+        assertEquals(PackedEquation.INVALID, PackedEquation.encode("(1+2)=3"), "Brackets have no 4-bit code.");
+        assertEquals(PackedEquation.INVALID, PackedEquation.encode("10+20=30"), "Eight symbols do not fit.");
+        // Trailing zeros are kept apart by the length
+        assertNotEquals(PackedEquation.encode("10"), PackedEquation.encode("100"));
+    }
+
+    @Test
+    void testPackedScoreMatchesStringScore() {
+        String[][] pairs = {{"1+1=1+1", "6-1=2+3"}, {"2*2*2=8", "12+2=14"}, {"10+5=15", "10+5=15"}, {"9-3*2=3", "2+3*2=8"}};
+        for (String[] pair : pairs) {
+            int[] expected = new int[7];
+            int[] actual = new int[7];
+            int pattern = FeedbackEngine.score(pair[0], pair[1], expected);
+            assertEquals(pattern, FeedbackEngine.score(PackedEquation.encode(pair[0]), PackedEquation.encode(pair[1]), actual),
+                    pair[0] + " against " + pair[1]);
+            assertArrayEquals(expected, actual);
+        }
+    }
+}
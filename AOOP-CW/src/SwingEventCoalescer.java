@@ -0,0 +1,49 @@
+// SwingEventCoalescer.java
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/*
+ * Collects events from any thread and hands them to Swing in batches on the event dispatch thread,
+ * at most once per frame, however many events arrive in between.
+ * */
+public final class SwingEventCoalescer implements GameEventListener {
+    public static final int FRAME_MILLIS = 16;
+
+    private final ConcurrentLinkedQueue<GameEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Consumer<List<GameEvent>> batchHandler;
+    private final Timer timer;
+
+    public SwingEventCoalescer(Consumer<List<GameEvent>> batchHandler) {
+        this(batchHandler, FRAME_MILLIS);
+    }
+
+    public SwingEventCoalescer(Consumer<List<GameEvent>> batchHandler, int frameMillis) {
+        this.batchHandler = batchHandler;
+        this.timer = new Timer(frameMillis, e -> flush());
+        timer.setRepeats(false);
+    }
+
+    @Override
+    public void onEvent(GameEvent event) {
+        pending.add(event);
+        // Only the first event of a frame starts the timer, the rest ride along
+        if (scheduled.compareAndSet(false, true)) timer.restart();
+    }
+
+    // Runs on the event dispatch thread
+    private void flush() {
+        // Cleared before draining, so an event added meanwhile schedules another frame
+        scheduled.set(false);
+        List<GameEvent> batch = new ArrayList<>();
+        GameEvent event;
+        while ((event = pending.poll()) != null) {
+            batch.add(event);
+        }
+        if (!batch.isEmpty()) batchHandler.accept(batch);
+    }
+}
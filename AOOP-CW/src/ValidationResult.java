@@ -0,0 +1,37 @@
+// ValidationResult.java
+
+/*
+ * Reason codes returned by EquationValidator.
+ * Front ends only need getMessage() to tell the player why a guess was rejected.
+ * */
+public enum ValidationResult {
+    VALID(""),
+    EMPTY("Input cannot be empty"),
+    INVALID_LENGTH("The Equation must be exactly " + INumberleModel.EQUATION_LENGTH + " characters long."),
+    INVALID_CHARACTER("The Equation contains an invalid character."),
+    MISSING_EQUALS("Equation must include an equals sign."),
+    MULTIPLE_EQUALS("Equation must include only one equals sign."),
+    MISPLACED_EQUALS("The equals sign needs an expression on both sides."),
+    MISPLACED_OPERATOR("Operators must be placed between two numbers."),
+    MISPLACED_PARENTHESIS("Brackets in the equation are not balanced."),
+    DIVISION_BY_ZERO("The equation cannot divide by zero."),
+    NOT_EQUAL("The left side is not equal to right side."),
+    // Hard mode only, HardModeConstraints.explain names the symbol and position
+    HARD_MODE_FIXED("Hard mode: revealed green symbols must stay in place."),
+    HARD_MODE_MISSING("Hard mode: every revealed symbol must be used."),
+    HARD_MODE_BANNED("Hard mode: a yellow symbol cannot return to the same position.");
+
+    private final String message;
+
+    ValidationResult(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isValid() {
+        return this == VALID;
+    }
+}
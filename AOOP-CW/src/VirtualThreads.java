@@ -0,0 +1,23 @@
+// VirtualThreads.java
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * Access to virtual threads without requiring a newer JDK to build.
+ * The project compiles for Java 8, so the factory is looked up reflectively at runtime.
+ * */
+public final class VirtualThreads {
+    private VirtualThreads() {
+    }
+
+    // An executor that starts a virtual thread per task, or null when the JVM has no virtual threads
+    public static ExecutorService newPerTaskExecutorOrNull() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}